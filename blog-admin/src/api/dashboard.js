@@ -24,10 +24,19 @@ export const getRecentComments = () => {
   })
 }
 
-// 获取访问趋势
-export const getVisitTrend = () => {
+// 获取访问趋势（最近 days 天）
+export const getVisitTrend = (days = 7) => {
   return request({
     url: '/dashboard/visit-trend',
+    method: 'get',
+    params: { days }
+  })
+}
+
+// 获取最近24小时访问趋势
+export const getHourlyVisitTrend = () => {
+  return request({
+    url: '/dashboard/visit-trend/hourly',
     method: 'get'
   })
 }
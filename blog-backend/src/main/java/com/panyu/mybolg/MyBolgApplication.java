@@ -3,9 +3,11 @@ package com.panyu.mybolg;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @MapperScan("com.panyu.mybolg.mapper")
+@EnableScheduling
 public class MyBolgApplication {
 
     public static void main(String[] args) {
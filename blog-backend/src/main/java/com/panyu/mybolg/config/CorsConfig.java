@@ -1,5 +1,6 @@
 package com.panyu.mybolg.config;
 
+import com.panyu.mybolg.controller.CaptchaController;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.cors.CorsConfiguration;
@@ -16,6 +17,8 @@ public class CorsConfig {
         config.setAllowCredentials(true);
         config.addAllowedMethod("*");
         config.addAllowedHeader("*");
+        // 允许前端读取 PNG 验证码接口返回的验证码ID
+        config.addExposedHeader(CaptchaController.CAPTCHA_ID_HEADER);
         config.setMaxAge(3600L);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -2,17 +2,37 @@ package com.panyu.mybolg.config;
 
 import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
-import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.panyu.mybolg.interceptor.CountCacheInvalidationInterceptor;
+import com.panyu.mybolg.interceptor.CountCachePaginationInterceptor;
+import com.panyu.mybolg.util.QueryCountCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
 
 @Configuration
 public class MybatisPlusConfig {
 
+    /**
+     * 分页总数缓存，键为规范化的查询条件，表写入后按版本号失效
+     */
+    @Bean
+    public QueryCountCache queryCountCache(RedisTemplate<String, String> redisTemplate,
+                                           @Value("${blog.count-cache.ttl:600000}") long ttl) {
+        return new QueryCountCache(redisTemplate, Duration.ofMillis(ttl));
+    }
+
     @Bean
-    public MybatisPlusInterceptor mybatisPlusInterceptor() {
+    public MybatisPlusInterceptor mybatisPlusInterceptor(QueryCountCache queryCountCache) {
         MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
-        interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.MYSQL));
+        interceptor.addInnerInterceptor(new CountCachePaginationInterceptor(DbType.MYSQL, queryCountCache));
         return interceptor;
     }
+
+    @Bean
+    public CountCacheInvalidationInterceptor countCacheInvalidationInterceptor(QueryCountCache queryCountCache) {
+        return new CountCacheInvalidationInterceptor(queryCountCache);
+    }
 }
@@ -0,0 +1,75 @@
+package com.panyu.mybolg.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 接口限流配置（blog.rate-limit）
+ * <p>
+ * 每条规则按路径匹配，以客户端IP或请求中的邮箱为维度，在 period 秒内最多 permits 次（令牌桶，允许突发 permits 次）。
+ * 同一路径可以配置多条规则，需要同时满足。配置文件中的 rules 会整体替换下面的默认规则。
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "blog.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * 限流维度：客户端IP
+     */
+    public static final String KEY_IP = "ip";
+
+    /**
+     * 限流维度：请求参数或 JSON 请求体中的 email
+     */
+    public static final String KEY_EMAIL = "email";
+
+    private boolean enabled = true;
+
+    private List<Rule> rules = new ArrayList<>(List.of(
+            new Rule("captcha_image", "/captcha/image/**", KEY_IP, 30, 60),
+            new Rule("captcha_send", "/captcha/send", KEY_IP, 10, 3600),
+            new Rule("captcha_send_email", "/captcha/send", KEY_EMAIL, 1, 60),
+            new Rule("forgot_password", "/user/forgot-password/send-code", KEY_IP, 10, 3600),
+            new Rule("forgot_password_email", "/user/forgot-password/send-code", KEY_EMAIL, 1, 60),
+            new Rule("login", "/user/login", KEY_IP, 20, 60),
+            new Rule("admin_login", "/user/admin-login", KEY_IP, 20, 60)
+    ));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rule {
+
+        /**
+         * 规则名称，用于 Redis 键
+         */
+        private String name;
+
+        /**
+         * 路径（Ant 风格）
+         */
+        private String path;
+
+        /**
+         * 限流维度：ip 或 email
+         */
+        private String key = KEY_IP;
+
+        /**
+         * 周期内允许的次数
+         */
+        private int permits;
+
+        /**
+         * 周期（秒）
+         */
+        private long period;
+    }
+}
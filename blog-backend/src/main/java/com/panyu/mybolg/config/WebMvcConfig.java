@@ -1,6 +1,7 @@
 package com.panyu.mybolg.config;
 
 import com.panyu.mybolg.interceptor.AuthInterceptor;
+import com.panyu.mybolg.interceptor.RateLimitInterceptor;
 import jakarta.annotation.Resource;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
@@ -15,8 +16,15 @@ public class WebMvcConfig implements WebMvcConfigurer {
     @Resource
     private AuthInterceptor authInterceptor;
     
+    @Resource
+    private RateLimitInterceptor rateLimitInterceptor;
+    
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        // 限流在鉴权之前，被限流的请求不再解析 token；规则和路径见 blog.rate-limit
+        registry.addInterceptor(rateLimitInterceptor)
+                .addPathPatterns("/**");
+        
         registry.addInterceptor(authInterceptor)
                 // 拦截所有请求
                 .addPathPatterns("/**")
@@ -5,26 +5,42 @@ package com.panyu.mybolg.context;
  */
 public class UserContext {
     
-    private static final ThreadLocal<Long> userIdHolder = new ThreadLocal<>();
+    private static final ThreadLocal<UserPrincipal> principalHolder = new ThreadLocal<>();
     
     /**
-     * 设置当前用户ID
+     * 设置当前登录用户
      */
-    public static void setUserId(Long userId) {
-        userIdHolder.set(userId);
+    public static void setPrincipal(UserPrincipal principal) {
+        principalHolder.set(principal);
+    }
+    
+    /**
+     * 获取当前登录用户，未登录返回 null
+     */
+    public static UserPrincipal getPrincipal() {
+        return principalHolder.get();
     }
     
     /**
      * 获取当前用户ID
      */
     public static Long getUserId() {
-        return userIdHolder.get();
+        UserPrincipal principal = principalHolder.get();
+        return principal != null ? principal.getId() : null;
+    }
+    
+    /**
+     * 当前用户是否为管理员
+     */
+    public static boolean isAdmin() {
+        UserPrincipal principal = principalHolder.get();
+        return principal != null && principal.isAdmin();
     }
     
     /**
      * 清除当前用户信息
      */
     public static void clear() {
-        userIdHolder.remove();
+        principalHolder.remove();
     }
 }
@@ -0,0 +1,33 @@
+package com.panyu.mybolg.context;
+
+import lombok.Data;
+
+/**
+ * 当前登录用户的鉴权信息（ID、角色、状态）
+ * <p>
+ * 由认证拦截器每个请求解析一次并放入 {@link UserContext}，来源于用户信息缓存，
+ * 接口做权限判断时直接使用，不再查询用户表。
+ */
+@Data
+public class UserPrincipal {
+
+    private Long id;
+
+    /**
+     * 角色：0-普通用户，1-管理员
+     */
+    private Integer role;
+
+    /**
+     * 状态：0-禁用，1-正常
+     */
+    private Integer status;
+
+    public boolean isAdmin() {
+        return role != null && role == 1;
+    }
+
+    public boolean isDisabled() {
+        return status != null && status == 0;
+    }
+}
@@ -5,15 +5,16 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.panyu.mybolg.common.Result;
 import com.panyu.mybolg.context.UserContext;
 import com.panyu.mybolg.entity.Article;
-import com.panyu.mybolg.entity.User;
 import com.panyu.mybolg.exception.BusinessException;
 import com.panyu.mybolg.service.ArticleService;
-import com.panyu.mybolg.service.UserService;
+import com.panyu.mybolg.util.ArticleQueryUtil;
+import com.panyu.mybolg.util.IpUtil;
 import com.panyu.mybolg.util.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.ArrayList;
@@ -28,8 +29,6 @@ public class ArticleController {
 
     @Resource
     private ArticleService articleService;
-    @Resource
-    private UserService userService;
 
     @Resource
     private JwtUtil jwtUtil;
@@ -41,7 +40,11 @@ public class ArticleController {
             @Parameter(description = "每页数量") @RequestParam(defaultValue = "10") Integer pageSize,
             @Parameter(description = "文章标题") @RequestParam(required = false) String title,
             @Parameter(description = "分类ID") @RequestParam(required = false) Long categoryId,
-            @Parameter(description = "状态(0:草稿,1:已发布)") @RequestParam(required = false) Integer status) {
+            @Parameter(description = "状态(0:草稿,1:已发布)") @RequestParam(required = false) Integer status,
+            @Parameter(description = "游标（传入即使用游标分页，首页传空字符串）") @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return Result.success(articleService.listWithCursor(cursor, pageSize, title, categoryId, status));
+        }
         Page<Article> result = articleService.listWithDetails(pageNum, pageSize, title, categoryId, status);
 
         Map<String, Object> data = new HashMap<>();
@@ -87,27 +90,13 @@ public class ArticleController {
     @Operation(summary = "获取文章详情", description = "根据ID获取文章详细信息")
     @GetMapping("/{id}")
     public Result<Article> getById(@Parameter(description = "文章ID") @PathVariable Long id) {
-        Long userId = UserContext.getUserId();
         Article article = articleService.getById(id);
         if (article == null) {
             throw new BusinessException(404, "文章不存在");
         }
         
-        // 如果用户已登录，检查权限
-        if (userId != null) {
-            User user = userService.getById(userId);
-            if (user == null) {
-                throw new BusinessException(404, "用户不存在");
-            }
-            
-            // 如果不是管理员，只能查看已发布且已审核的文章
-            if (user.getRole() != 1) {
-                if (article.getStatus() != 1 || article.getAuditStatus() != 1) {
-                    throw new BusinessException(404, "文章不存在");
-                }
-            }
-        } else {
-            // 未登录用户只能查看已发布且已审核的文章
+        // 管理员可以查看所有文章，其他用户只能查看已发布且已审核的文章
+        if (!UserContext.isAdmin()) {
             if (article.getStatus() != 1 || article.getAuditStatus() != 1) {
                 throw new BusinessException(404, "文章不存在");
             }
@@ -215,12 +204,15 @@ public class ArticleController {
         return Result.success();
     }
 
-    @Operation(summary = "点赞文章", description = "文章点赞数+1")
+    @Operation(summary = "点赞文章", description = "文章点赞数+1（同一用户/IP只能点赞一次）")
     @PostMapping("/{id}/like")
-    public Result<Void> like(@Parameter(description = "文章ID") @PathVariable Long id) {
-        boolean success = articleService.increaseLikeCount(id);
+    public Result<Void> like(@Parameter(description = "文章ID") @PathVariable Long id, HttpServletRequest request) {
+        // 该接口无需登录：已登录按用户去重，未登录按IP去重
+        Long userId = jwtUtil.getUserIdFromToken(request.getHeader("Authorization"));
+        String liker = userId != null ? "u:" + userId : "ip:" + IpUtil.getClientIp(request);
+        boolean success = articleService.increaseLikeCount(id, liker);
         if (!success) {
-            throw new BusinessException("操作失败");
+            throw new BusinessException("您已经点过赞了");
         }
         return Result.success();
     }
@@ -232,7 +224,8 @@ public class ArticleController {
             @Parameter(description = "每页数量") @RequestParam(defaultValue = "10") Integer pageSize) {
         // 获取所有文章（包括待审核的）
         Page<Article> page = new Page<>(pageNum, pageSize);
-        LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
+        // 列表只查询摘要字段，不加载正文
+        LambdaQueryWrapper<Article> wrapper = ArticleQueryUtil.summaryWrapper();
         // 只查询已发布且待审核的文章（status = 1 且 auditStatus = 0）
         wrapper.eq(Article::getStatus, 1)      // 已发布的文章
                 .eq(Article::getAuditStatus, 0); // 待审核
@@ -5,20 +5,21 @@ import com.panyu.mybolg.entity.EmailMessage;
 import com.panyu.mybolg.enums.EmailType;
 import com.panyu.mybolg.service.EmailProducer;
 import com.panyu.mybolg.util.CaptchaUtil;
-import com.panyu.mybolg.util.ImageCaptchaUtil;
+import com.panyu.mybolg.util.ImageCaptchaPool;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 @Tag(name = "验证码管理", description = "验证码相关接口")
@@ -28,42 +29,57 @@ public class CaptchaController {
     
     private static final Logger logger = LoggerFactory.getLogger(CaptchaController.class);
     
+    /**
+     * PNG 验证码接口返回验证码ID的响应头
+     */
+    public static final String CAPTCHA_ID_HEADER = "X-Captcha-Id";
+    
     @Resource
     private RedisTemplate<String, String> redisTemplate;
     
     @Resource
     private EmailProducer emailProducer;
     
-    @Operation(summary = "获取图形验证码", description = "获取账号登陆用的图形验证码")
+    @Resource
+    private ImageCaptchaPool imageCaptchaPool;
+    
+    @Operation(summary = "获取图形验证码", description = "获取账号登陆用的图形验证码（Base64 data URI）")
     @GetMapping("/image")
-    public Result<Map<String, String>> getImageCaptcha() throws Exception {
-        logger.info("请求图形验证码");
-        
-        // 生成图形验证码
-        ImageCaptchaUtil.CaptchaResult result = ImageCaptchaUtil.generateCaptcha();
-        String code = result.code;
-        BufferedImage image = result.image;
-        
-        // 生成唯一的captcha ID用于存储和验证
-        String captchaId = "img_" + System.currentTimeMillis() + "_" + (int)(Math.random() * 10000);
-        
-        // 存储到Redis，有效期30秒
-        redisTemplate.opsForValue().set(captchaId, code, 30, TimeUnit.SECONDS);
-        logger.info("图形验证码已生成, captchaId: {}, code: {}", captchaId, code);
-        
-        // 将图片转换为字节数组
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(image, "jpg", baos);
-        byte[] imageBytes = baos.toByteArray();
+    public Result<Map<String, String>> getImageCaptcha() {
+        ImageCaptchaPool.PooledCaptcha captcha = imageCaptchaPool.take();
+        String captchaId = saveImageCaptcha(captcha);
         
         // Return captcha info (including captchaId and image)
         Map<String, String> data = new HashMap<>();
         data.put("captchaId", captchaId);
-        data.put("image", "data:image/jpeg;base64," + java.util.Base64.getEncoder().encodeToString(imageBytes));
+        data.put("image", captcha.getDataUri());
         
         return Result.success(data);
     }
     
+    @Operation(summary = "获取图形验证码图片", description = "直接返回 PNG 图片，验证码ID在响应头 X-Captcha-Id 中")
+    @GetMapping(value = "/image/png", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<byte[]> getImageCaptchaPng() {
+        ImageCaptchaPool.PooledCaptcha captcha = imageCaptchaPool.take();
+        String captchaId = saveImageCaptcha(captcha);
+        
+        return ResponseEntity.ok()
+                .header(CAPTCHA_ID_HEADER, captchaId)
+                .cacheControl(CacheControl.noStore())
+                .contentType(MediaType.IMAGE_PNG)
+                .body(captcha.getPng());
+    }
+    
+    /**
+     * 生成验证码ID并把验证码存入Redis，有效期30秒
+     */
+    private String saveImageCaptcha(ImageCaptchaPool.PooledCaptcha captcha) {
+        String captchaId = "img_" + UUID.randomUUID().toString().replace("-", "");
+        redisTemplate.opsForValue().set(captchaId, captcha.getCode(), 30, TimeUnit.SECONDS);
+        logger.debug("图形验证码已生成, captchaId: {}", captchaId);
+        return captchaId;
+    }
+    
     @Operation(summary = "测试邮件配置", description = "测试邮件配置是否正常")
     @GetMapping("/test")
     public Result<Map<String, String>> testEmail() {
@@ -1,6 +1,7 @@
 package com.panyu.mybolg.controller;
 
 import com.panyu.mybolg.common.Result;
+import com.panyu.mybolg.context.UserContext;
 import com.panyu.mybolg.entity.Comment;
 import com.panyu.mybolg.exception.BusinessException;
 import com.panyu.mybolg.service.CommentService;
@@ -41,7 +42,11 @@ public class CommentController {
     public Result<Map<String, Object>> list(
             @Parameter(description = "文章ID") @PathVariable Long articleId,
             @Parameter(description = "页码") @RequestParam(defaultValue = "1") Integer pageNum,
-            @Parameter(description = "每页数量") @RequestParam(defaultValue = "10") Integer pageSize) {
+            @Parameter(description = "每页数量") @RequestParam(defaultValue = "10") Integer pageSize,
+            @Parameter(description = "游标（传入即使用游标分页，首页传空字符串）") @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            return Result.success(commentService.listArticleCommentsByCursor(articleId, cursor, pageSize));
+        }
         Map<String, Object> data = commentService.listArticleComments(articleId, pageNum, pageSize);
         return Result.success(data);
     }
@@ -70,9 +75,9 @@ public class CommentController {
     @Operation(summary = "点赞评论", description = "评论点赞数+1")
     @PostMapping("/{id}/like")
     public Result<Void> like(@Parameter(description = "评论ID") @PathVariable Long id) {
-        boolean success = commentService.likeComment(id);
+        boolean success = commentService.likeComment(id, UserContext.getUserId());
         if (!success) {
-            throw new BusinessException("操作失败");
+            throw new BusinessException("您已经点过赞了");
         }
         return Result.success();
     }
@@ -1,12 +1,16 @@
 package com.panyu.mybolg.controller;
 
 import com.panyu.mybolg.common.Result;
+import com.panyu.mybolg.context.UserContext;
 import com.panyu.mybolg.entity.Article;
 import com.panyu.mybolg.entity.Comment;
+import com.panyu.mybolg.exception.BusinessException;
 import com.panyu.mybolg.service.DashboardService;
 import jakarta.annotation.Resource;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -38,8 +42,14 @@ public class DashboardController {
     }
 
     @GetMapping("/visit-trend")
-    public Result<Map<String, Object>> getVisitTrend() {
-        Map<String, Object> trend = dashboardService.getVisitTrend();
+    public Result<Map<String, Object>> getVisitTrend(@RequestParam(defaultValue = "7") Integer days) {
+        Map<String, Object> trend = dashboardService.getVisitTrend(days);
+        return Result.success(trend);
+    }
+
+    @GetMapping("/visit-trend/hourly")
+    public Result<Map<String, Object>> getHourlyVisitTrend() {
+        Map<String, Object> trend = dashboardService.getHourlyVisitTrend();
         return Result.success(trend);
     }
 
@@ -48,4 +58,35 @@ public class DashboardController {
         List<Map<String, Object>> stats = dashboardService.getCategoryStats();
         return Result.success(stats);
     }
+
+    @GetMapping("/email-lanes")
+    public Result<List<Map<String, Object>>> getEmailLaneStats() {
+        checkAdmin();
+        List<Map<String, Object>> stats = dashboardService.getEmailLaneStats();
+        return Result.success(stats);
+    }
+
+    /**
+     * 孤儿文件回收的运行状态和最近一次报告（仅管理员）
+     */
+    @GetMapping("/media-gc")
+    public Result<Map<String, Object>> getMediaGcStatus() {
+        checkAdmin();
+        return Result.success(dashboardService.getMediaGcStatus());
+    }
+
+    /**
+     * 在后台开始孤儿文件回收，默认 dry-run，立即返回运行状态（仅管理员）
+     */
+    @PostMapping("/media-gc/run")
+    public Result<Map<String, Object>> runMediaGc(@RequestParam(defaultValue = "true") Boolean dryRun) {
+        checkAdmin();
+        return Result.success(dashboardService.runMediaGc(dryRun));
+    }
+
+    private void checkAdmin() {
+        if (!UserContext.isAdmin()) {
+            throw new BusinessException(403, "无权限");
+        }
+    }
 }
@@ -1,13 +1,21 @@
 package com.panyu.mybolg.controller;
 
 import com.panyu.mybolg.common.Result;
+import com.panyu.mybolg.context.UserContext;
 import com.panyu.mybolg.entity.Upload;
 import com.panyu.mybolg.service.UploadService;
+import com.panyu.mybolg.vo.PresignUploadRequest;
 import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/upload")
@@ -77,6 +85,53 @@ public class UploadController {
         return uploadImage(file, "avatars", userId);
     }
 
+    /**
+     * 流式上传：请求体就是文件内容（不使用 multipart），文件名放在 X-File-Name 头（URL 编码）。
+     * 请求线程立即释放，文件在上传线程池中边读边分片上传；传入 progressId 可查询进度。
+     */
+    @PostMapping("/stream")
+    public CompletableFuture<Result<Map<String, Object>>> uploadStream(
+            HttpServletRequest request,
+            @RequestHeader(value = "X-File-Name", required = false) String fileName,
+            @RequestParam(defaultValue = "common") String bizDir,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) String progressId) throws IOException {
+        String originalName = fileName != null ? URLDecoder.decode(fileName, StandardCharsets.UTF_8) : null;
+        String contentType = request.getContentType() != null ? request.getContentType() : "application/octet-stream";
+        return uploadService.uploadStream(request.getInputStream(), originalName, contentType,
+                        request.getContentLengthLong(), bizDir, userId, progressId)
+                .thenApply(Result::success)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    return Result.error(cause.getMessage());
+                });
+    }
+
+    /**
+     * 查询流式上传进度
+     */
+    @GetMapping("/progress/{progressId}")
+    public Result<Map<String, Object>> progress(@PathVariable String progressId) {
+        return Result.success(uploadService.getUploadProgress(progressId));
+    }
+
+    /**
+     * 申请预签名上传地址：客户端用返回的 url 和 headers 直接 PUT 到存储，完成后调用 /presign/complete
+     */
+    @PostMapping("/presign")
+    public Result<Map<String, Object>> presign(@RequestBody PresignUploadRequest request) {
+        return Result.success(uploadService.presignUpload(request.getFileName(), request.getContentType(),
+                request.getFileSize(), request.getBizDir(), UserContext.getUserId()));
+    }
+
+    /**
+     * 预签名上传完成回调
+     */
+    @PostMapping("/presign/complete")
+    public Result<Map<String, Object>> completePresign(@RequestBody Map<String, String> params) {
+        return Result.success(uploadService.completePresignedUpload(params.get("key"), UserContext.getUserId()));
+    }
+
     @PostMapping
     public Result<Upload> save(@RequestBody Upload upload) {
         uploadService.save(upload);
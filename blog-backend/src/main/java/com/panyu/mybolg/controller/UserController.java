@@ -151,23 +151,8 @@ public class UserController {
         // 强制使用当前登录用户的ID，防止越权修改他人信息
         user.setId(userId);
 
-        // 使用 UpdateWrapper 仅更新非敏感字段
-        com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper<User> updateWrapper = 
-            new com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper<>();
-        updateWrapper.eq(User::getId, userId);
-        
         // 只允许更新昵称、邮箱、头像，禁止更新role、status等敏感字段
-        if (user.getNickname() != null) {
-            updateWrapper.set(User::getNickname, user.getNickname());
-        }
-        if (user.getEmail() != null) {
-            updateWrapper.set(User::getEmail, user.getEmail());
-        }
-        if (user.getAvatar() != null) {
-            updateWrapper.set(User::getAvatar, user.getAvatar());
-        }
-        
-        userService.update(updateWrapper);
+        userService.updateBasicInfo(userId, user);
         
         // 返回更新后的用户信息
         User updatedUser = userService.getById(userId);
@@ -291,18 +276,6 @@ public class UserController {
             return Result.error(400, "密码需为 6-20 个字符");
         }
         
-        // 验证验证码
-        String redisKey = com.panyu.mybolg.util.CaptchaUtil.getCaptchaRedisKey(email);
-        String storedCode = redisTemplate.opsForValue().get(redisKey);
-        
-        if (storedCode == null) {
-            throw new RuntimeException("验证码已过期");
-        }
-        
-        if (!storedCode.equals(code)) {
-            throw new RuntimeException("验证码错误");
-        }
-        
         // 根据邮箱找到用户並更新密码
         User user = userService.getOne(new com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper<User>()
                 .eq(User::getEmail, email));
@@ -310,15 +283,15 @@ public class UserController {
         if (user == null) {
             throw new RuntimeException("用户不存在");
         }
+        
+        // 验证并消费验证码
+        captchaValidator.validateEmailCaptcha(email, code);
 
         // 先解密前端传来的密码，再进行MD5加密
         String decryptedPassword = FrontendCryptoUtil.decrypt(newPassword);
         user.setPassword(PasswordUtil.encryptPassword(decryptedPassword));
         userService.updateById(user);
         
-        // 删除验证码
-        redisTemplate.delete(redisKey);
-        
         return Result.success("密码重置成功");
     }
 }
@@ -2,6 +2,7 @@ package com.panyu.mybolg.entity;
 
 import com.baomidou.mybatisplus.annotation.*;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.panyu.mybolg.vo.TagVO;
 import lombok.Data;
 
@@ -19,6 +20,8 @@ public class Article {
 
     private String summary;
 
+    // 列表接口不查询正文，为空时不输出
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String content;
 
     private String cover;
@@ -44,6 +47,16 @@ public class Article {
     @TableField(exist = false)
     private List<String> tags;
 
+    // 列表使用：封面缩略图URL，尚未生成时为空，前端回退为 cover
+    @TableField(exist = false)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String coverThumbnail;
+
+    // 搜索结果使用：带高亮标记的正文片段
+    @TableField(exist = false)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String highlight;
+
     private Integer status;
 
     private Integer auditStatus;
@@ -52,8 +65,14 @@ public class Article {
 
     private Integer isTop;
 
+    /**
+     * 浏览量、点赞数由写回式计数以 col = col + ? 落库，按实体更新时不写这两列，
+     * 避免读-改-写期间提交的落库增量被旧值覆盖
+     */
+    @TableField(updateStrategy = FieldStrategy.NEVER)
     private Integer viewCount;
 
+    @TableField(updateStrategy = FieldStrategy.NEVER)
     private Integer likeCount;
 
     private Integer commentCount;
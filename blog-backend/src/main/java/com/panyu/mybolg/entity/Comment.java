@@ -30,6 +30,10 @@ public class Comment {
 
     private String content;
 
+    /**
+     * 点赞数由写回式计数以 like_count = like_count + ? 落库，按实体更新时不写该列
+     */
+    @TableField(updateStrategy = FieldStrategy.NEVER)
     private Integer likeCount;
 
     private Integer status;
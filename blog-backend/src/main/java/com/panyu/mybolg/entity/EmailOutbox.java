@@ -0,0 +1,65 @@
+package com.panyu.mybolg.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import com.panyu.mybolg.enums.EmailType;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 邮件发件箱（事务性 outbox）
+ * <p>
+ * 邮件先与业务数据在同一事务中写入本表，再由后台投递到 RocketMQ，
+ * Broker 不可用时邮件保留在表中等待重试。
+ */
+@Data
+@TableName("email_outbox")
+public class EmailOutbox {
+
+    /**
+     * 待投递
+     */
+    public static final int STATUS_PENDING = 0;
+
+    /**
+     * 已投递
+     */
+    public static final int STATUS_SENT = 1;
+
+    /**
+     * 超过最大重试次数，放弃投递
+     */
+    public static final int STATUS_FAILED = 2;
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    private String toEmail;
+
+    private String subject;
+
+    private String content;
+
+    private EmailType type;
+
+    private Integer status;
+
+    private Integer retryCount;
+
+    /**
+     * 下次可投递时间，投递中的记录会被推后作为租约
+     */
+    private LocalDateTime nextRetryTime;
+
+    private String lastError;
+
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    @TableField(fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+
+    public EmailMessage toEmailMessage() {
+        return new EmailMessage(toEmail, subject, content, type);
+    }
+}
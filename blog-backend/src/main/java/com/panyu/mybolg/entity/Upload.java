@@ -25,8 +25,19 @@ public class Upload {
 
     private Long fileSize;
 
+    /**
+     * 文件内容 SHA-256，相同内容的记录共用同一个存储对象
+     */
+    private String contentHash;
+
     private Long userId;
 
+    /**
+     * 缩略图URL（列表使用），尚未生成或非图片时为空
+     */
+    @TableField(exist = false)
+    private String thumbnailUrl;
+
     @TableLogic
     private Integer deleted;
 
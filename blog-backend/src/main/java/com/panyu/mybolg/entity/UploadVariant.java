@@ -0,0 +1,56 @@
+package com.panyu.mybolg.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 图片衍生文件（缩略图、中图、大图），上传后由后台异步生成
+ */
+@Data
+@TableName("upload_variant")
+public class UploadVariant {
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 原图上传记录ID
+     */
+    private Long uploadId;
+
+    /**
+     * 原图URL，列表按封面、头像URL直接查询衍生图
+     */
+    private String sourceUrl;
+
+    /**
+     * 尺寸：thumbnail、medium、large
+     */
+    private String variant;
+
+    /**
+     * 输出格式：webp、jpg、png
+     */
+    private String format;
+
+    private String filePath;
+
+    private String fileUrl;
+
+    private Integer width;
+
+    private Integer height;
+
+    private Long fileSize;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    @TableField(fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+}
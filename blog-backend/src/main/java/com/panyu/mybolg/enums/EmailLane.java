@@ -0,0 +1,28 @@
+package com.panyu.mybolg.enums;
+
+import lombok.Getter;
+
+/**
+ * 邮件通道：不同通道使用独立的 Topic、消费组和消费线程，互不排队
+ */
+@Getter
+public enum EmailLane {
+    
+    /**
+     * 时效敏感的邮件（验证码等），优先发送
+     */
+    URGENT("urgent", "紧急"),
+    
+    /**
+     * 批量通知类邮件，让位于紧急通道
+     */
+    BULK("bulk", "普通");
+    
+    private final String code;
+    private final String description;
+    
+    EmailLane(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+}
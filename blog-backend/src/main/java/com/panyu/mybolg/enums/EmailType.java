@@ -8,28 +8,34 @@ public enum EmailType {
     /**
      * 验证码邮件
      */
-    CAPTCHA("captcha", "验证码"),
+    CAPTCHA("captcha", "验证码", EmailLane.URGENT),
     
     /**
      * 找回密码邮件
      */
-    FORGOT_PASSWORD("forgot_password", "找回密码"),
+    FORGOT_PASSWORD("forgot_password", "找回密码", EmailLane.URGENT),
     
     /**
      * 文章审核结果邮件
      */
-    ARTICLE_AUDIT("article_audit", "文章审核"),
+    ARTICLE_AUDIT("article_audit", "文章审核", EmailLane.BULK),
     
     /**
      * 新文章通知邮件
      */
-    ARTICLE_NOTIFY("article_notify", "文章通知");
+    ARTICLE_NOTIFY("article_notify", "文章通知", EmailLane.BULK);
     
     private final String code;
     private final String description;
     
-    EmailType(String code, String description) {
+    /**
+     * 所属发送通道
+     */
+    private final EmailLane lane;
+    
+    EmailType(String code, String description, EmailLane lane) {
         this.code = code;
         this.description = description;
+        this.lane = lane;
     }
 }
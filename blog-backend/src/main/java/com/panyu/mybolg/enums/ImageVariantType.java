@@ -0,0 +1,33 @@
+package com.panyu.mybolg.enums;
+
+import lombok.Getter;
+
+/**
+ * 图片衍生尺寸：按最长边等比缩放，原图小于该尺寸时不生成
+ */
+@Getter
+public enum ImageVariantType {
+    
+    /**
+     * 缩略图，用于列表页
+     */
+    THUMBNAIL("thumbnail", 320),
+    
+    /**
+     * 中图，用于详情页和卡片
+     */
+    MEDIUM("medium", 960),
+    
+    /**
+     * 大图，用于高分屏
+     */
+    LARGE("large", 1920);
+    
+    private final String code;
+    private final int maxEdge;
+    
+    ImageVariantType(String code, int maxEdge) {
+        this.code = code;
+        this.maxEdge = maxEdge;
+    }
+}
@@ -0,0 +1,19 @@
+package com.panyu.mybolg.event;
+
+import com.panyu.mybolg.entity.Article;
+
+/**
+ * 文章变更事件（新增、更新、删除）
+ * <p>
+ * 由 ArticleService 在写操作后发布，监听方使用 @TransactionalEventListener 在事务提交后处理。
+ */
+public class ArticleChangedEvent extends EntityChangedEvent {
+
+    public ArticleChangedEvent(Long articleId, Action action) {
+        super(Article.class, articleId, action);
+    }
+
+    public Long getArticleId() {
+        return getEntityId();
+    }
+}
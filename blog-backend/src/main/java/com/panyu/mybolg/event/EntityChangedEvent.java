@@ -0,0 +1,28 @@
+package com.panyu.mybolg.event;
+
+import lombok.Getter;
+
+/**
+ * 实体变更事件（新增、更新、删除）
+ * <p>
+ * 由各 Service 在写操作成功后发布，监听方使用 @TransactionalEventListener 在事务提交后处理。
+ */
+@Getter
+public class EntityChangedEvent {
+
+    public enum Action {
+        SAVE, UPDATE, DELETE
+    }
+
+    private final Class<?> entityType;
+
+    private final Long entityId;
+
+    private final Action action;
+
+    public EntityChangedEvent(Class<?> entityType, Long entityId, Action action) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.action = action;
+    }
+}
@@ -3,6 +3,7 @@ package com.panyu.mybolg.exception;
 import com.panyu.mybolg.common.Result;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -25,6 +26,17 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Result.error(401, e.getMessage()));
     }
     
+    /**
+     * 请求过于频繁，返回 HTTP 429
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Result<String>> handleTooManyRequests(TooManyRequestsException e) {
+        logger.warn("请求被限流: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Result.error(429, e.getMessage()));
+    }
+    
     /**
      * 处理运行时异常
      */
@@ -0,0 +1,21 @@
+package com.panyu.mybolg.exception;
+
+/**
+ * 请求过于频繁，用于返回 HTTP 429
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    /**
+     * 建议的重试等待时间（秒）
+     */
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
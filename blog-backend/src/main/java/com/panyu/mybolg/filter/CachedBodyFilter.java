@@ -0,0 +1,76 @@
+package com.panyu.mybolg.filter;
+
+import com.alibaba.fastjson2.JSON;
+import com.panyu.mybolg.common.Result;
+import com.panyu.mybolg.config.RateLimitProperties;
+import jakarta.annotation.Resource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 为按邮箱限流的接口缓存 JSON 请求体，使限流拦截器可以在控制器之前读取 email 字段
+ * <p>
+ * 这些接口的请求体都很小，超过上限的直接返回 413；分块传输没有 Content-Length，
+ * 因此读取时也最多只读上限加一个字节。
+ */
+@Component
+public class CachedBodyFilter extends OncePerRequestFilter {
+
+    /**
+     * 请求体大小上限
+     */
+    private static final int MAX_BODY_SIZE = 64 * 1024;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    @Resource
+    private RateLimitProperties rateLimitProperties;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!rateLimitProperties.isEnabled()
+                || request.getContentType() == null
+                || !request.getContentType().startsWith(MediaType.APPLICATION_JSON_VALUE)) {
+            return true;
+        }
+        String path = urlPathHelper.getPathWithinApplication(request);
+        return rateLimitProperties.getRules().stream()
+                .noneMatch(rule -> RateLimitProperties.KEY_EMAIL.equals(rule.getKey())
+                        && pathMatcher.match(rule.getPath(), path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (request.getContentLengthLong() > MAX_BODY_SIZE) {
+            rejectTooLarge(response);
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_SIZE + 1);
+        if (body.length > MAX_BODY_SIZE) {
+            rejectTooLarge(response);
+            return;
+        }
+        filterChain.doFilter(new CachedBodyRequestWrapper(request, body), response);
+    }
+
+    private void rejectTooLarge(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(JSON.toJSONString(Result.error(413, "请求体过大")));
+    }
+}
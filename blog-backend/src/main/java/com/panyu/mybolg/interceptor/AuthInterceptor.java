@@ -1,7 +1,9 @@
 package com.panyu.mybolg.interceptor;
 
 import com.panyu.mybolg.context.UserContext;
+import com.panyu.mybolg.context.UserPrincipal;
 import com.panyu.mybolg.exception.UnauthorizedException;
+import com.panyu.mybolg.service.LookupCacheService;
 import com.panyu.mybolg.util.JwtUtil;
 import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,6 +20,9 @@ public class AuthInterceptor implements HandlerInterceptor {
     @Resource
     private JwtUtil jwtUtil;
     
+    @Resource
+    private LookupCacheService lookupCacheService;
+    
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         // 处理预检请求
@@ -35,8 +40,17 @@ public class AuthInterceptor implements HandlerInterceptor {
             throw new UnauthorizedException("未授权或token已过期");
         }
         
-        // 将用户ID存入 ThreadLocal
-        UserContext.setUserId(userId);
+        // 从缓存获取角色和状态，后续权限判断不再查询用户表
+        UserPrincipal principal = lookupCacheService.getUserPrincipal(userId);
+        if (principal == null) {
+            throw new UnauthorizedException("用户不存在");
+        }
+        if (principal.isDisabled()) {
+            throw new UnauthorizedException("用户被禁用");
+        }
+        
+        // 将当前用户存入 ThreadLocal
+        UserContext.setPrincipal(principal);
         
         return true;
     }
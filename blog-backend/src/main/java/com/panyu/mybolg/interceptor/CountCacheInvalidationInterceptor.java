@@ -0,0 +1,83 @@
+package com.panyu.mybolg.interceptor;
+
+import com.panyu.mybolg.mapper.ArticleMapper;
+import com.panyu.mybolg.mapper.CommentMapper;
+import com.panyu.mybolg.util.QueryCountCache;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 表写入后更新分页总数缓存的版本号
+ * <p>
+ * 在事务中时等提交后再更新（同一事务内多次写入同一张表只更新一次），
+ * 避免提交前其他请求按新版本号缓存旧的总数；不在事务中时语句执行后立即更新。
+ * 只累加计数列的语句不会改变任何查询命中的行数，不更新版本号，
+ * 否则写回式计数每次落库都会让文章、评论表的总数缓存全部失效。
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class CountCacheInvalidationInterceptor implements Interceptor {
+
+    private static final Object PENDING_TABLES_KEY = new Object();
+
+    /**
+     * 只更新计数列（浏览量、点赞数）的语句
+     */
+    private static final Set<String> COUNTER_STATEMENTS = Set.of(
+            ArticleMapper.class.getName() + ".incrementViewCounts",
+            ArticleMapper.class.getName() + ".incrementLikeCounts",
+            CommentMapper.class.getName() + ".incrementLikeCounts");
+
+    private final QueryCountCache queryCountCache;
+
+    public CountCacheInvalidationInterceptor(QueryCountCache queryCountCache) {
+        this.queryCountCache = queryCountCache;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        if (COUNTER_STATEMENTS.contains(ms.getId())) {
+            return result;
+        }
+        queryCountCache.resolveTable(ms).ifPresent(this::bumpAfterCommit);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void bumpAfterCommit(String table) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            queryCountCache.bumpVersion(table);
+            return;
+        }
+        Set<String> tables = (Set<String>) TransactionSynchronizationManager.getResource(PENDING_TABLES_KEY);
+        if (tables == null) {
+            Set<String> pending = new LinkedHashSet<>();
+            tables = pending;
+            TransactionSynchronizationManager.bindResource(PENDING_TABLES_KEY, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.forEach(queryCountCache::bumpVersion);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_TABLES_KEY);
+                }
+            });
+        }
+        tables.add(table);
+    }
+}
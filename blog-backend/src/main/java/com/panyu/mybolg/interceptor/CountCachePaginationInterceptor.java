@@ -0,0 +1,57 @@
+package com.panyu.mybolg.interceptor;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.ParameterUtils;
+import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.panyu.mybolg.util.QueryCountCache;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * 带总数缓存的分页拦截器
+ * <p>
+ * 同一查询条件翻页时复用缓存的 COUNT 结果，只执行 LIMIT 查询；
+ * 表有写入时由 {@link CountCacheInvalidationInterceptor} 更新版本号使缓存失效。
+ */
+public class CountCachePaginationInterceptor extends PaginationInnerInterceptor {
+
+    private final QueryCountCache queryCountCache;
+
+    public CountCachePaginationInterceptor(DbType dbType, QueryCountCache queryCountCache) {
+        super(dbType);
+        this.queryCountCache = queryCountCache;
+    }
+
+    @Override
+    public boolean willDoQuery(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds,
+                               ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
+        IPage<?> page = ParameterUtils.findPage(parameter).orElse(null);
+        if (page == null || page.getSize() < 0 || !page.searchCount() || resultHandler != Executor.NO_RESULT_HANDLER) {
+            return super.willDoQuery(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+        }
+        Optional<String> table = queryCountCache.resolveTable(ms);
+        if (table.isEmpty()) {
+            return super.willDoQuery(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+        }
+
+        String digest = QueryCountCache.digest(ms, parameter, boundSql);
+        QueryCountCache.Lookup lookup = queryCountCache.get(table.get(), digest);
+        if (lookup != null && lookup.getTotal() != null) {
+            page.setTotal(lookup.getTotal());
+            return continuePage(page);
+        }
+
+        boolean result = super.willDoQuery(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+        if (lookup != null) {
+            queryCountCache.put(table.get(), digest, lookup.getVersion(), page.getTotal());
+        }
+        return result;
+    }
+}
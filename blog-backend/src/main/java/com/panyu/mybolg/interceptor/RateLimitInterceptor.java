@@ -0,0 +1,87 @@
+package com.panyu.mybolg.interceptor;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.panyu.mybolg.config.RateLimitProperties;
+import com.panyu.mybolg.exception.TooManyRequestsException;
+import com.panyu.mybolg.filter.CachedBodyRequestWrapper;
+import com.panyu.mybolg.util.IpUtil;
+import com.panyu.mybolg.util.RateLimiter;
+import jakarta.annotation.Resource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.WebUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 限流拦截器，按 {@link RateLimitProperties} 中的规则限制验证码、登录、邮件等接口的调用频率
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    @Resource
+    private RateLimitProperties rateLimitProperties;
+
+    @Resource
+    private RateLimiter rateLimiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // 处理预检请求
+        if ("OPTIONS".equals(request.getMethod()) || !rateLimitProperties.isEnabled()) {
+            return true;
+        }
+
+        String path = urlPathHelper.getPathWithinApplication(request);
+        for (RateLimitProperties.Rule rule : rateLimitProperties.getRules()) {
+            if (!pathMatcher.match(rule.getPath(), path)) {
+                continue;
+            }
+            String value = RateLimitProperties.KEY_EMAIL.equals(rule.getKey())
+                    ? resolveEmail(request)
+                    : IpUtil.getClientIp(request);
+            if (value == null) {
+                continue;
+            }
+            String name = rule.getName() != null ? rule.getName() : rule.getPath();
+            long waitMillis = rateLimiter.tryAcquire(name + ":" + value, rule.getPermits(), rule.getPeriod());
+            if (waitMillis > 0) {
+                long retryAfter = Math.max(1, (waitMillis + 999) / 1000);
+                throw new TooManyRequestsException("请求过于频繁，请" + retryAfter + "秒后再试", retryAfter);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 从请求参数或 JSON 请求体中取邮箱（统一小写），取不到返回 null
+     */
+    private String resolveEmail(HttpServletRequest request) {
+        String email = request.getParameter("email");
+        if (email == null) {
+            CachedBodyRequestWrapper wrapper = WebUtils.getNativeRequest(request, CachedBodyRequestWrapper.class);
+            if (wrapper != null && wrapper.getBody().length > 0) {
+                try {
+                    JSONObject body = JSON.parseObject(new String(wrapper.getBody(), StandardCharsets.UTF_8));
+                    email = body != null ? body.getString("email") : null;
+                } catch (Exception e) {
+                    // 请求体不是 JSON 对象，交给控制器处理
+                    return null;
+                }
+            }
+        }
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        return email.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,31 @@
+package com.panyu.mybolg.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 文章每日访问统计
+ */
+@Mapper
+public interface ArticleDailyStatMapper {
+
+    /**
+     * 累加某一天各文章的浏览量，不存在则插入
+     *
+     * @param statDate 统计日期
+     * @param deltas   文章ID -> 浏览增量
+     */
+    int upsertViews(@Param("statDate") LocalDate statDate, @Param("deltas") Map<Long, Long> deltas);
+
+    /**
+     * 按天汇总日期区间内的浏览量（包含首尾两天）
+     *
+     * @return statDate / views
+     */
+    List<Map<String, Object>> selectDailyViews(@Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate);
+}
@@ -1,9 +1,12 @@
 package com.panyu.mybolg.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.panyu.mybolg.entity.Article;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -14,4 +17,40 @@ public interface ArticleMapper extends BaseMapper<Article> {
      * 根据文章ID列表获取评论数量
      */
     List<Map<String, Object>> getCommentCountsByArticleIds(@Param("articleIds") List<Long> articleIds);
+
+    /**
+     * 批量累加浏览量（文章ID -> 增量），不更新 update_time
+     */
+    int incrementViewCounts(@Param("deltas") Map<Long, Long> deltas);
+
+    /**
+     * 批量累加点赞数（文章ID -> 增量），不更新 update_time
+     */
+    int incrementLikeCounts(@Param("deltas") Map<Long, Long> deltas);
+
+    /**
+     * 全文检索（MATCH ... AGAINST），按相关度排序，只返回摘要字段
+     */
+    IPage<Article> searchFulltext(IPage<Article> page, @Param("keyword") String keyword);
+
+    /**
+     * 截取正文中关键词附近的片段（id, snippet）
+     */
+    List<Map<String, Object>> selectContentSnippets(@Param("ids") List<Long> ids,
+                                                    @Param("keyword") String keyword,
+                                                    @Param("radius") int radius);
+
+    /**
+     * 按分类统计已发布且已审核的文章数（id, cnt）
+     */
+    List<Map<String, Object>> countPublishedByCategory();
+
+    /**
+     * 按 (update_time, id) 顺序分批查询变更过的文章，包含已逻辑删除的，用于同步搜索索引
+     * <p>
+     * 返回 id、title、content、status、audit_status、deleted、update_time
+     */
+    List<Article> selectChangedSince(@Param("since") LocalDateTime since,
+                                     @Param("lastId") Long lastId,
+                                     @Param("limit") int limit);
 }
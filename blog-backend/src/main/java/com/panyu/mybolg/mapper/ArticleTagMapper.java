@@ -4,6 +4,14 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.panyu.mybolg.entity.ArticleTag;
 import org.apache.ibatis.annotations.Mapper;
 
+import java.util.List;
+import java.util.Map;
+
 @Mapper
 public interface ArticleTagMapper extends BaseMapper<ArticleTag> {
+
+    /**
+     * 按标签统计已发布的文章数（id, cnt）
+     */
+    List<Map<String, Object>> countPublishedByTag();
 }
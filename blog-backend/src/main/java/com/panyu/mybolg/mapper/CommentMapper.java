@@ -3,7 +3,15 @@ package com.panyu.mybolg.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.panyu.mybolg.entity.Comment;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Map;
 
 @Mapper
 public interface CommentMapper extends BaseMapper<Comment> {
+
+    /**
+     * 批量累加点赞数（评论ID -> 增量），不更新 update_time
+     */
+    int incrementLikeCounts(@Param("deltas") Map<Long, Long> deltas);
 }
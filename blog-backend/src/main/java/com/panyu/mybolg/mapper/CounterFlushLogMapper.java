@@ -0,0 +1,25 @@
+package com.panyu.mybolg.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+
+/**
+ * 计数落库记录，按 flushId 去重
+ */
+@Mapper
+public interface CounterFlushLogMapper {
+
+    /**
+     * 记录一次落库，flushId 已存在时不插入
+     *
+     * @return 插入行数，0 表示该快照已经落库
+     */
+    int insertIgnore(@Param("flushId") String flushId);
+
+    /**
+     * 删除早于指定时间的记录
+     */
+    int deleteBefore(@Param("before") LocalDateTime before);
+}
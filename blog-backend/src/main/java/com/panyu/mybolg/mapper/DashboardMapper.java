@@ -0,0 +1,17 @@
+package com.panyu.mybolg.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+
+import java.util.Map;
+
+/**
+ * 仪表盘聚合统计
+ */
+@Mapper
+public interface DashboardMapper {
+
+    /**
+     * 一次查询返回文章数、总浏览量、用户数、评论数、分类数
+     */
+    Map<String, Object> selectStats();
+}
@@ -0,0 +1,9 @@
+package com.panyu.mybolg.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.panyu.mybolg.entity.UploadVariant;
+import org.apache.ibatis.annotations.Mapper;
+
+@Mapper
+public interface UploadVariantMapper extends BaseMapper<UploadVariant> {
+}
@@ -0,0 +1,178 @@
+package com.panyu.mybolg.service;
+
+import com.alibaba.fastjson2.JSON;
+import com.panyu.mybolg.entity.EmailMessage;
+import com.panyu.mybolg.enums.EmailLane;
+import jakarta.annotation.Resource;
+import org.apache.rocketmq.client.consumer.DefaultMQPushConsumer;
+import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyContext;
+import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyStatus;
+import org.apache.rocketmq.client.consumer.listener.MessageListenerConcurrently;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.spring.core.RocketMQListener;
+import org.apache.rocketmq.spring.core.RocketMQPushConsumerLifecycleListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 邮件队列消费者基类，每个邮件通道一个子类（独立 Topic 和消费组）
+ * <p>
+ * 按批消费：一次最多取 batch-size 条消息，通过同一个 SMTP 连接发送，
+ * 避免每封邮件都重新建立连接和 SSL 握手。发送失败的消息单独退回 Broker 重试，
+ * 不影响同批已发送成功的邮件；连接、认证失败等整批未发送时整批重试。
+ * 批大小和消费线程数按通道配置：rocketmq.email.&lt;lane&gt;.batch-size / consume-threads。
+ */
+public abstract class AbstractEmailConsumer implements RocketMQListener<EmailMessage>, RocketMQPushConsumerLifecycleListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AbstractEmailConsumer.class);
+    
+    @Resource
+    private EmailService emailService;
+    
+    @Resource
+    private EmailLaneScheduler emailLaneScheduler;
+    
+    @Resource
+    private EmailLaneMetrics emailLaneMetrics;
+    
+    @Resource
+    private EmailProducer emailProducer;
+    
+    @Resource
+    private Environment environment;
+    
+    /**
+     * 最大重试次数，超过后进入死信队列
+     */
+    @Value("${rocketmq.email.max-retries:16}")
+    private int maxRetries;
+    
+    private final EmailLane lane;
+    
+    private final int defaultBatchSize;
+    
+    private final int defaultConsumeThreads;
+    
+    private DefaultMQPushConsumer consumer;
+    
+    protected AbstractEmailConsumer(EmailLane lane, int defaultBatchSize, int defaultConsumeThreads) {
+        this.lane = lane;
+        this.defaultBatchSize = defaultBatchSize;
+        this.defaultConsumeThreads = defaultConsumeThreads;
+    }
+    
+    /**
+     * 替换默认的逐条监听器为批量监听器，并按通道设置消费线程数
+     */
+    @Override
+    public void prepareStart(DefaultMQPushConsumer consumer) {
+        String prefix = "rocketmq.email." + lane.getCode() + ".";
+        int batchSize = Math.max(1, environment.getProperty(prefix + "batch-size", Integer.class, defaultBatchSize));
+        int consumeThreads = Math.max(1, environment.getProperty(prefix + "consume-threads", Integer.class, defaultConsumeThreads));
+        
+        this.consumer = consumer;
+        consumer.setConsumeMessageBatchMaxSize(batchSize);
+        consumer.setPullBatchSize(Math.max(consumer.getPullBatchSize(), batchSize));
+        consumer.setConsumeThreadMin(consumeThreads);
+        consumer.setConsumeThreadMax(consumeThreads);
+        consumer.setMaxReconsumeTimes(maxRetries);
+        consumer.setMessageListener((MessageListenerConcurrently) this::consumeBatch);
+        emailLaneMetrics.registerBacklog(lane, this::backlog);
+        logger.info("邮件消费者已配置: lane={}, batchSize={}, consumeThreads={}", lane.getCode(), batchSize, consumeThreads);
+    }
+    
+    /**
+     * 逐条处理（批量监听器生效后不会再被调用）
+     */
+    @Override
+    public void onMessage(EmailMessage emailMessage) {
+        emailService.sendEmail(emailMessage);
+    }
+    
+    /**
+     * 批量处理邮件消息
+     */
+    private ConsumeConcurrentlyStatus consumeBatch(List<MessageExt> msgs, ConsumeConcurrentlyContext context) {
+        List<MessageExt> sendable = new ArrayList<>(msgs.size());
+        List<EmailMessage> emailMessages = new ArrayList<>(msgs.size());
+        for (MessageExt msg : msgs) {
+            try {
+                emailMessages.add(JSON.parseObject(new String(msg.getBody(), StandardCharsets.UTF_8), EmailMessage.class));
+                sendable.add(msg);
+            } catch (Exception e) {
+                // 格式错误的消息重试也无法处理，直接丢弃
+                logger.error("解析邮件消息失败, 已丢弃: lane={}, msgId={}, error={}", lane.getCode(), msg.getMsgId(), e.getMessage());
+            }
+        }
+        logger.info("接收到邮件消息: lane={}, count={}", lane.getCode(), emailMessages.size());
+        
+        Map<Integer, Exception> failed;
+        try {
+            failed = emailLaneScheduler.run(lane, () -> emailService.sendEmails(emailMessages));
+        } catch (Exception e) {
+            emailLaneMetrics.recordFailed(lane, emailMessages.size());
+            logger.error("批量发送邮件失败, 整批重试: lane={}, count={}, error={}", 
+                    lane.getCode(), emailMessages.size(), e.getMessage(), e);
+            return ConsumeConcurrentlyStatus.RECONSUME_LATER;
+        }
+        
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < sendable.size(); i++) {
+            if (!failed.containsKey(i)) {
+                emailLaneMetrics.recordSent(lane, now - sendable.get(i).getBornTimestamp());
+            }
+        }
+        if (failed.isEmpty()) {
+            return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+        }
+        emailLaneMetrics.recordFailed(lane, failed.size());
+        if (failed.size() == emailMessages.size()) {
+            logger.error("批量发送邮件全部失败, 整批重试: lane={}, count={}", lane.getCode(), failed.size());
+            return ConsumeConcurrentlyStatus.RECONSUME_LATER;
+        }
+        
+        // 部分失败：只把失败的消息退回 Broker，已发送的不再重复发送；
+        // 退回失败时改为写入发件箱重新投递，仍失败才整批重试（已发送的会重复发送，但不丢邮件）
+        boolean lost = false;
+        for (Map.Entry<Integer, Exception> entry : failed.entrySet()) {
+            MessageExt msg = sendable.get(entry.getKey());
+            EmailMessage emailMessage = emailMessages.get(entry.getKey());
+            logger.warn("邮件发送失败, 稍后重试: type={}, to={}, reconsumeTimes={}, error={}",
+                    emailMessage.getType(), emailMessage.getTo(), msg.getReconsumeTimes(), entry.getValue().getMessage());
+            try {
+                consumer.sendMessageBack(msg, 0, context.getMessageQueue().getBrokerName());
+            } catch (Exception e) {
+                logger.warn("退回邮件消息失败, 改为写入发件箱: type={}, to={}, error={}",
+                        emailMessage.getType(), emailMessage.getTo(), e.getMessage());
+                try {
+                    emailProducer.sendEmailMessage(emailMessage);
+                } catch (Exception ex) {
+                    logger.error("写入发件箱失败: type={}, to={}, error={}",
+                            emailMessage.getType(), emailMessage.getTo(), ex.getMessage(), ex);
+                    lost = true;
+                }
+            }
+        }
+        if (lost) {
+            logger.error("部分失败邮件无法退回, 整批重试: lane={}, count={}", lane.getCode(), sendable.size());
+            return ConsumeConcurrentlyStatus.RECONSUME_LATER;
+        }
+        return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+    }
+    
+    /**
+     * 本实例已拉取但尚未消费的消息数
+     */
+    private long backlog() {
+        return consumer.getDefaultMQPushConsumerImpl().getRebalanceImpl().getProcessQueueTable().values().stream()
+                .mapToLong(queue -> queue.getMsgCount().get())
+                .sum();
+    }
+}
@@ -0,0 +1,117 @@
+package com.panyu.mybolg.service;
+
+import com.panyu.mybolg.event.ArticleChangedEvent;
+import com.panyu.mybolg.mapper.ArticleMapper;
+import com.panyu.mybolg.mapper.ArticleTagMapper;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 分类、标签下的文章数缓存
+ * <p>
+ * 通过一条 GROUP BY 查询统计全部分类/标签的文章数，结果以 Hash 形式缓存在 Redis 中，
+ * 文章新增、审核、删除等变更提交后删除缓存，下次读取时重新统计。
+ */
+@Service
+public class ArticleCountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArticleCountService.class);
+
+    private static final String CATEGORY_COUNT_KEY = "count:category_articles";
+
+    private static final String TAG_COUNT_KEY = "count:tag_articles";
+
+    /**
+     * 占位字段，区分"没有任何统计结果"与"缓存不存在"
+     */
+    private static final String PLACEHOLDER_FIELD = "_";
+
+    private static final Duration CACHE_TTL = Duration.ofMinutes(10);
+
+    @Resource
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Resource
+    private ArticleMapper articleMapper;
+
+    @Resource
+    private ArticleTagMapper articleTagMapper;
+
+    /**
+     * 各分类已发布且已审核的文章数
+     */
+    public Map<Long, Integer> getCategoryCounts() {
+        return getCounts(CATEGORY_COUNT_KEY, articleMapper::countPublishedByCategory);
+    }
+
+    /**
+     * 各标签已发布的文章数
+     */
+    public Map<Long, Integer> getTagCounts() {
+        return getCounts(TAG_COUNT_KEY, articleTagMapper::countPublishedByTag);
+    }
+
+    /**
+     * 文章变更提交后删除统计缓存
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleChanged(ArticleChangedEvent event) {
+        evict();
+    }
+
+    public void evict() {
+        try {
+            redisTemplate.delete(Arrays.asList(CATEGORY_COUNT_KEY, TAG_COUNT_KEY));
+        } catch (Exception e) {
+            logger.warn("删除文章数缓存失败: {}", e.getMessage());
+        }
+    }
+
+    private Map<Long, Integer> getCounts(String key, Supplier<List<Map<String, Object>>> loader) {
+        try {
+            Map<Object, Object> cached = redisTemplate.opsForHash().entries(key);
+            if (!cached.isEmpty()) {
+                Map<Long, Integer> counts = new HashMap<>();
+                cached.forEach((field, value) -> {
+                    if (!PLACEHOLDER_FIELD.equals(field)) {
+                        counts.put(Long.valueOf(field.toString()), Integer.valueOf(value.toString()));
+                    }
+                });
+                return counts;
+            }
+        } catch (Exception e) {
+            logger.warn("读取文章数缓存失败: key={}, error={}", key, e.getMessage());
+        }
+
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Map<String, Object> row : loader.get()) {
+            Object id = row.get("id");
+            Object cnt = row.get("cnt");
+            if (id instanceof Number && cnt instanceof Number) {
+                counts.put(((Number) id).longValue(), ((Number) cnt).intValue());
+            }
+        }
+
+        try {
+            Map<String, String> fields = new HashMap<>();
+            fields.put(PLACEHOLDER_FIELD, "0");
+            counts.forEach((id, cnt) -> fields.put(String.valueOf(id), String.valueOf(cnt)));
+            redisTemplate.opsForHash().putAll(key, fields);
+            redisTemplate.expire(key, CACHE_TTL);
+        } catch (Exception e) {
+            logger.warn("写入文章数缓存失败: key={}, error={}", key, e.getMessage());
+        }
+        return counts;
+    }
+}
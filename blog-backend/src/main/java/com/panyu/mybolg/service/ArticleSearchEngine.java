@@ -0,0 +1,19 @@
+package com.panyu.mybolg.service;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.panyu.mybolg.entity.Article;
+
+/**
+ * 文章全文检索引擎
+ * <p>
+ * 通过 blog.search.engine 切换实现：mysql（默认，MATCH ... AGAINST + ngram）或 lucene（内嵌索引）。
+ */
+public interface ArticleSearchEngine {
+
+    /**
+     * 按相关度搜索已发布且已审核的文章
+     * <p>
+     * 返回的文章只包含摘要字段，highlight 为带高亮标记的正文片段（已做 HTML 转义）
+     */
+    Page<Article> search(String keyword, Integer pageNum, Integer pageSize);
+}
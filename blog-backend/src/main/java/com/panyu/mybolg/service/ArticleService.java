@@ -14,6 +14,11 @@ public interface ArticleService extends IService<Article> {
      */
     Page<Article> listWithDetails(Integer pageNum, Integer pageSize, String title, Long categoryId, Integer status);
 
+    /**
+     * 游标分页查询文章列表（不统计总数），返回 list、nextCursor、hasMore
+     */
+    Map<String, Object> listWithCursor(String cursor, Integer pageSize, String title, Long categoryId, Integer status);
+
     /**
      * 管理端分页查询文章列表（包含所有审核状态的文章），并填充作者、分类、标签信息
      */
@@ -55,9 +60,11 @@ public interface ArticleService extends IService<Article> {
     boolean increaseViewCount(Long id);
 
     /**
-     * 增加点赞量
+     * 增加点赞量（同一点赞者只计一次）
+     *
+     * @param liker 点赞者标识（用户ID或IP）
      */
-    boolean increaseLikeCount(Long id);
+    boolean increaseLikeCount(Long id, String liker);
 
     /**
      * 填充文章列表的详细信息（作者、分类、标签）
@@ -18,15 +18,20 @@ public interface CommentService extends IService<Comment> {
      */
     Map<String, Object> listArticleComments(Long articleId, Integer pageNum, Integer pageSize);
     
+    /**
+     * Web端游标分页获取文章评论列表（包含回复，不统计总数），返回 list、nextCursor、hasMore
+     */
+    Map<String, Object> listArticleCommentsByCursor(Long articleId, String cursor, Integer pageSize);
+    
     /**
      * 保存评论（设置默认值）
      */
     Comment saveComment(Comment comment);
     
     /**
-     * 增加评论点赞数
+     * 增加评论点赞数（同一用户只计一次）
      */
-    boolean likeComment(Long id);
+    boolean likeComment(Long id, Long userId);
     
     /**
      * 审核评论
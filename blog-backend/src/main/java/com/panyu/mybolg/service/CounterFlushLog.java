@@ -0,0 +1,58 @@
+package com.panyu.mybolg.service;
+
+import com.panyu.mybolg.mapper.CounterFlushLogMapper;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * 计数快照落库去重
+ * <p>
+ * {@link com.panyu.mybolg.util.WriteBehindCounter} 的快照可能被重放（写库后删除快照失败、锁超时后其他实例接手），
+ * 写库事务中先以 flushId 插入记录，插入失败说明已经落库，跳过本次写入。
+ */
+@Service
+public class CounterFlushLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(CounterFlushLog.class);
+
+    @Resource
+    private CounterFlushLogMapper counterFlushLogMapper;
+
+    /**
+     * 记录保留天数，需远大于快照可能滞留的时间
+     */
+    @Value("${blog.counter-flush-log.retention-days:7}")
+    private int retentionDays;
+
+    /**
+     * 标记快照已落库，必须与增量写入处于同一事务
+     *
+     * @return false 表示该快照已经落库过
+     */
+    public boolean markApplied(String flushId) {
+        boolean applied = counterFlushLogMapper.insertIgnore(flushId) > 0;
+        if (!applied) {
+            logger.warn("计数快照已落库，跳过重复写入: flushId={}", flushId);
+        }
+        return applied;
+    }
+
+    /**
+     * 清理历史记录
+     */
+    @Scheduled(cron = "${blog.counter-flush-log.cleanup-cron:0 40 3 * * ?}")
+    public void cleanup() {
+        try {
+            int deleted = counterFlushLogMapper.deleteBefore(LocalDateTime.now().minusDays(retentionDays));
+            logger.info("清理计数落库记录: {}", deleted);
+        } catch (Exception e) {
+            logger.error("清理计数落库记录失败: {}", e.getMessage(), e);
+        }
+    }
+}
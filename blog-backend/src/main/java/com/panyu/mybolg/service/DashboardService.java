@@ -24,12 +24,35 @@ public interface DashboardService {
     List<Comment> getRecentComments();
     
     /**
-     * 获取访问趋势
+     * 获取最近 N 天的访问趋势
      */
-    Map<String, Object> getVisitTrend();
+    Map<String, Object> getVisitTrend(Integer days);
+    
+    /**
+     * 获取最近24小时的访问趋势
+     */
+    Map<String, Object> getHourlyVisitTrend();
     
     /**
      * 获取分类统计
      */
     List<Map<String, Object>> getCategoryStats();
+    
+    /**
+     * 获取各邮件通道的发送指标
+     */
+    List<Map<String, Object>> getEmailLaneStats();
+    
+    /**
+     * 孤儿文件回收的运行状态和最近一次报告
+     */
+    Map<String, Object> getMediaGcStatus();
+    
+    /**
+     * 在后台开始一次孤儿文件回收
+     *
+     * @param dryRun 只生成报告，不标记也不删除
+     * @return 运行状态
+     */
+    Map<String, Object> runMediaGc(boolean dryRun);
 }
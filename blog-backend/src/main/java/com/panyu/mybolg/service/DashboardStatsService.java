@@ -0,0 +1,127 @@
+package com.panyu.mybolg.service;
+
+import com.panyu.mybolg.entity.Article;
+import com.panyu.mybolg.entity.Category;
+import com.panyu.mybolg.entity.Comment;
+import com.panyu.mybolg.entity.User;
+import com.panyu.mybolg.event.EntityChangedEvent;
+import com.panyu.mybolg.mapper.DashboardMapper;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 仪表盘统计快照
+ * <p>
+ * 所有计数由一条聚合 SQL 取得并缓存在本地，短 TTL 过期后重新查询。
+ * 评论、用户、分类的增删通过 {@link EntityChangedEvent} 增量修正快照；
+ * 文章变更可能改变发布/审核状态，直接标记快照失效，下次读取时重新聚合。
+ * 总浏览量在加载快照时叠加已发布且已审核通过文章尚未落库的浏览增量，与数据库中的统计口径一致，
+ * 读取时不再访问 Redis。
+ */
+@Service
+public class DashboardStatsService {
+
+    @Resource
+    private DashboardMapper dashboardMapper;
+
+    @Resource
+    private ViewCountService viewCountService;
+
+    @Value("${blog.dashboard.stats-ttl:30000}")
+    private long statsTtl;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * 获取统计数据
+     */
+    public Map<String, Object> getStats() {
+        Snapshot current = currentSnapshot();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("articleCount", current.articleCount.get());
+        stats.put("userCount", current.userCount.get());
+        stats.put("commentCount", current.commentCount.get());
+        stats.put("categoryCount", current.categoryCount.get());
+        stats.put("totalViews", current.totalViews);
+        return stats;
+    }
+
+    /**
+     * 事务提交后按变更类型修正快照
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        if (event.getEntityType() == Article.class) {
+            snapshot = null;
+            return;
+        }
+        long delta = switch (event.getAction()) {
+            case SAVE -> 1;
+            case DELETE -> -1;
+            default -> 0;
+        };
+        if (delta == 0) {
+            return;
+        }
+        if (event.getEntityType() == Comment.class) {
+            current.commentCount.addAndGet(delta);
+        } else if (event.getEntityType() == User.class) {
+            current.userCount.addAndGet(delta);
+        } else if (event.getEntityType() == Category.class) {
+            current.categoryCount.addAndGet(delta);
+        }
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null && System.currentTimeMillis() - current.loadedAt < statsTtl) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || System.currentTimeMillis() - current.loadedAt >= statsTtl) {
+                current = new Snapshot(dashboardMapper.selectStats(), viewCountService.getPublishedPending());
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final long loadedAt = System.currentTimeMillis();
+
+        private final AtomicLong articleCount;
+
+        private final AtomicLong userCount;
+
+        private final AtomicLong commentCount;
+
+        private final AtomicLong categoryCount;
+
+        private final long totalViews;
+
+        private Snapshot(Map<String, Object> row, long pendingViews) {
+            this.articleCount = new AtomicLong(longValue(row, "articleCount"));
+            this.userCount = new AtomicLong(longValue(row, "userCount"));
+            this.commentCount = new AtomicLong(longValue(row, "commentCount"));
+            this.categoryCount = new AtomicLong(longValue(row, "categoryCount"));
+            this.totalViews = longValue(row, "totalViews") + pendingViews;
+        }
+
+        private static long longValue(Map<String, Object> row, String key) {
+            Object value = row != null ? row.get(key) : null;
+            return value instanceof Number ? ((Number) value).longValue() : 0L;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.panyu.mybolg.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.panyu.mybolg.entity.EmailOutbox;
+import com.panyu.mybolg.enums.EmailLane;
+import com.panyu.mybolg.enums.EmailType;
+import com.panyu.mybolg.mapper.EmailOutboxMapper;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 邮件各通道的运行指标（本实例）
+ * <ul>
+ *     <li>sent / failed：发送成功、失败的邮件数</li>
+ *     <li>avgLatencyMs / maxLatencyMs：消息产生到发送完成的耗时（指数加权平均 / 最大值）</li>
+ *     <li>consumerBacklog：本实例已拉取未处理的消息数</li>
+ *     <li>outboxPending：发件箱中尚未投递到队列的邮件数</li>
+ * </ul>
+ */
+@Component
+public class EmailLaneMetrics {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EmailLaneMetrics.class);
+    
+    /**
+     * 平均耗时的平滑系数
+     */
+    private static final double EWMA_ALPHA = 0.2;
+    
+    @Resource
+    private EmailOutboxMapper emailOutboxMapper;
+    
+    private final Map<EmailLane, LaneStats> stats = new EnumMap<>(EmailLane.class);
+    
+    private final Map<EmailLane, LongSupplier> backlogSuppliers = new ConcurrentHashMap<>();
+    
+    public EmailLaneMetrics() {
+        for (EmailLane lane : EmailLane.values()) {
+            stats.put(lane, new LaneStats());
+        }
+    }
+    
+    /**
+     * 注册通道的消费积压数来源
+     */
+    public void registerBacklog(EmailLane lane, LongSupplier backlog) {
+        backlogSuppliers.put(lane, backlog);
+    }
+    
+    /**
+     * 记录一封发送成功的邮件
+     *
+     * @param latencyMillis 消息产生到发送完成的耗时
+     */
+    public void recordSent(EmailLane lane, long latencyMillis) {
+        stats.get(lane).recordSent(Math.max(0, latencyMillis));
+    }
+    
+    public void recordFailed(EmailLane lane, int count) {
+        stats.get(lane).failed.addAndGet(count);
+    }
+    
+    /**
+     * 各通道指标快照
+     */
+    public List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (EmailLane lane : EmailLane.values()) {
+            LaneStats laneStats = stats.get(lane);
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("lane", lane.getCode());
+            item.put("name", lane.getDescription());
+            item.put("sent", laneStats.sent.get());
+            item.put("failed", laneStats.failed.get());
+            item.put("avgLatencyMs", Math.round(laneStats.avgLatency()));
+            item.put("maxLatencyMs", laneStats.maxLatency.get());
+            item.put("consumerBacklog", consumerBacklog(lane));
+            item.put("outboxPending", outboxPending(lane));
+            result.add(item);
+        }
+        return result;
+    }
+    
+    private long consumerBacklog(EmailLane lane) {
+        LongSupplier supplier = backlogSuppliers.get(lane);
+        if (supplier == null) {
+            return 0;
+        }
+        try {
+            return supplier.getAsLong();
+        } catch (Exception e) {
+            logger.warn("获取邮件消费积压失败: lane={}, error={}", lane.getCode(), e.getMessage());
+            return -1;
+        }
+    }
+    
+    private long outboxPending(EmailLane lane) {
+        List<EmailType> types = Arrays.stream(EmailType.values())
+                .filter(type -> type.getLane() == lane)
+                .toList();
+        try {
+            return emailOutboxMapper.selectCount(new LambdaQueryWrapper<EmailOutbox>()
+                    .eq(EmailOutbox::getStatus, EmailOutbox.STATUS_PENDING)
+                    .in(EmailOutbox::getType, types));
+        } catch (Exception e) {
+            logger.warn("统计发件箱待投递邮件失败: lane={}, error={}", lane.getCode(), e.getMessage());
+            return -1;
+        }
+    }
+    
+    private static class LaneStats {
+        
+        private final AtomicLong sent = new AtomicLong();
+        
+        private final AtomicLong failed = new AtomicLong();
+        
+        private final AtomicLong maxLatency = new AtomicLong();
+        
+        private double ewmaLatency = -1;
+        
+        private void recordSent(long latencyMillis) {
+            sent.incrementAndGet();
+            maxLatency.accumulateAndGet(latencyMillis, Math::max);
+            synchronized (this) {
+                ewmaLatency = ewmaLatency < 0 ? latencyMillis : ewmaLatency + EWMA_ALPHA * (latencyMillis - ewmaLatency);
+            }
+        }
+        
+        private synchronized double avgLatency() {
+            return Math.max(0, ewmaLatency);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.panyu.mybolg.service;
+
+import com.panyu.mybolg.enums.EmailLane;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * 邮件发送优先级调度
+ * <p>
+ * 紧急通道随到随发；普通通道在开始发送一批邮件前，先等待本实例上正在发送的紧急邮件完成，
+ * 避免与验证码争用 SMTP 连接和发信频率限制。等待时间有上限，普通通道不会被饿死。
+ */
+@Component
+public class EmailLaneScheduler {
+    
+    /**
+     * 普通通道最长让行时间（毫秒）
+     */
+    @Value("${rocketmq.email.bulk.max-yield-ms:3000}")
+    private long maxYieldMillis;
+    
+    private final Object monitor = new Object();
+    
+    private int urgentInFlight;
+    
+    /**
+     * 按通道优先级执行发送任务
+     */
+    public <T> T run(EmailLane lane, Supplier<T> task) {
+        if (lane != EmailLane.URGENT) {
+            awaitUrgentIdle();
+            return task.get();
+        }
+        synchronized (monitor) {
+            urgentInFlight++;
+        }
+        try {
+            return task.get();
+        } finally {
+            synchronized (monitor) {
+                if (--urgentInFlight == 0) {
+                    monitor.notifyAll();
+                }
+            }
+        }
+    }
+    
+    private void awaitUrgentIdle() {
+        long deadline = System.currentTimeMillis() + maxYieldMillis;
+        synchronized (monitor) {
+            while (urgentInFlight > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return;
+                }
+                try {
+                    monitor.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
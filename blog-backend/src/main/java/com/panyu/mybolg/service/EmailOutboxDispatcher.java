@@ -0,0 +1,215 @@
+package com.panyu.mybolg.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.panyu.mybolg.entity.EmailOutbox;
+import com.panyu.mybolg.enums.EmailLane;
+import com.panyu.mybolg.enums.EmailType;
+import com.panyu.mybolg.mapper.EmailOutboxMapper;
+import jakarta.annotation.Resource;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 发件箱投递：把 email_outbox 中的邮件转发到 RocketMQ
+ * <p>
+ * 新邮件在事务提交后立即异步投递；定时任务扫描到期未投递的记录（立即投递失败、
+ * 租约超时或 Broker 不可用期间积压的）重新投递，失败按指数退避重试，
+ * 超过最大次数后标记为失败。多实例通过条件更新抢占记录，同一条邮件只由一个实例投递。
+ * <p>
+ * 按邮件类型所属通道投递到不同 Topic（Tag 为类型编码），定时投递时紧急通道的邮件优先。
+ */
+@Service
+public class EmailOutboxDispatcher {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+    
+    private static final int MAX_ERROR_LENGTH = 500;
+    
+    /**
+     * 重试退避上限（秒）
+     */
+    private static final long MAX_BACKOFF_SECONDS = 3600;
+    
+    @Resource
+    private RocketMQTemplate rocketMQTemplate;
+    
+    @Resource
+    private EmailOutboxMapper emailOutboxMapper;
+    
+    @Value("${rocketmq.email.topic:email-topic}")
+    private String emailTopic;
+    
+    @Value("${rocketmq.email.urgent.topic:email-urgent-topic}")
+    private String urgentTopic;
+    
+    @Value("${blog.email-outbox.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${blog.email-outbox.max-retries:10}")
+    private int maxRetries;
+    
+    @Value("${blog.email-outbox.lease-seconds:60}")
+    private long leaseSeconds;
+    
+    @Value("${blog.email-outbox.retention-days:7}")
+    private int retentionDays;
+    
+    /**
+     * 异步投递，不阻塞调用线程
+     */
+    public void dispatchAsync(EmailOutbox outbox) {
+        try {
+            rocketMQTemplate.asyncSend(destination(outbox), outbox.toEmailMessage(), new SendCallback() {
+                @Override
+                public void onSuccess(SendResult sendResult) {
+                    markSent(outbox);
+                }
+                
+                @Override
+                public void onException(Throwable e) {
+                    markRetry(outbox, e);
+                }
+            });
+        } catch (Exception e) {
+            markRetry(outbox, e);
+        }
+    }
+    
+    /**
+     * 定时投递到期的待发邮件
+     */
+    @Scheduled(fixedDelayString = "${blog.email-outbox.dispatch-interval:5000}")
+    public void dispatchPending() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> due = new ArrayList<>();
+        try {
+            // 先取紧急通道，剩余名额再取普通通道
+            for (EmailLane lane : EmailLane.values()) {
+                if (due.size() >= batchSize) {
+                    break;
+                }
+                due.addAll(selectDue(lane, now, batchSize - due.size()));
+            }
+        } catch (Exception e) {
+            logger.error("查询待投递邮件失败: {}", e.getMessage(), e);
+            return;
+        }
+        
+        for (EmailOutbox outbox : due) {
+            if (!claim(outbox, now)) {
+                continue;
+            }
+            try {
+                rocketMQTemplate.syncSend(destination(outbox), outbox.toEmailMessage());
+                markSent(outbox);
+            } catch (Exception e) {
+                markRetry(outbox, e);
+            }
+        }
+    }
+    
+    /**
+     * 清理已投递的历史记录
+     */
+    @Scheduled(cron = "${blog.email-outbox.cleanup-cron:0 30 3 * * ?}")
+    public void cleanup() {
+        try {
+            int deleted = emailOutboxMapper.delete(new LambdaQueryWrapper<EmailOutbox>()
+                    .eq(EmailOutbox::getStatus, EmailOutbox.STATUS_SENT)
+                    .lt(EmailOutbox::getUpdateTime, LocalDateTime.now().minusDays(retentionDays)));
+            logger.info("清理已投递邮件记录: {}", deleted);
+        } catch (Exception e) {
+            logger.error("清理已投递邮件记录失败: {}", e.getMessage(), e);
+        }
+    }
+    
+    private List<EmailOutbox> selectDue(EmailLane lane, LocalDateTime now, int limit) {
+        List<EmailType> types = Arrays.stream(EmailType.values())
+                .filter(type -> type.getLane() == lane)
+                .toList();
+        return emailOutboxMapper.selectList(new LambdaQueryWrapper<EmailOutbox>()
+                .eq(EmailOutbox::getStatus, EmailOutbox.STATUS_PENDING)
+                .le(EmailOutbox::getNextRetryTime, now)
+                .in(EmailOutbox::getType, types)
+                .orderByAsc(EmailOutbox::getId)
+                .last("LIMIT " + limit));
+    }
+    
+    /**
+     * 目标地址：通道对应的 Topic，Tag 为邮件类型编码
+     */
+    private String destination(EmailOutbox outbox) {
+        EmailType type = outbox.getType();
+        if (type == null) {
+            return emailTopic;
+        }
+        String topic = type.getLane() == EmailLane.URGENT ? urgentTopic : emailTopic;
+        return topic + ":" + type.getCode();
+    }
+    
+    /**
+     * 抢占记录：把下次投递时间推后一个租约，只有更新成功的实例负责投递
+     */
+    private boolean claim(EmailOutbox outbox, LocalDateTime now) {
+        return emailOutboxMapper.update(null, new LambdaUpdateWrapper<EmailOutbox>()
+                .set(EmailOutbox::getNextRetryTime, now.plusSeconds(leaseSeconds))
+                .eq(EmailOutbox::getId, outbox.getId())
+                .eq(EmailOutbox::getStatus, EmailOutbox.STATUS_PENDING)
+                .le(EmailOutbox::getNextRetryTime, now)) > 0;
+    }
+    
+    private void markSent(EmailOutbox outbox) {
+        try {
+            emailOutboxMapper.update(null, new LambdaUpdateWrapper<EmailOutbox>()
+                    .set(EmailOutbox::getStatus, EmailOutbox.STATUS_SENT)
+                    .eq(EmailOutbox::getId, outbox.getId()));
+            logger.info("邮件消息投递成功: id={}, type={}, to={}", 
+                    outbox.getId(), outbox.getType(), outbox.getToEmail());
+        } catch (Exception e) {
+            // 状态未更新会导致租约到期后重复投递一次
+            logger.error("更新邮件投递状态失败: id={}, error={}", outbox.getId(), e.getMessage(), e);
+        }
+    }
+    
+    private void markRetry(EmailOutbox outbox, Throwable cause) {
+        int retryCount = (outbox.getRetryCount() != null ? outbox.getRetryCount() : 0) + 1;
+        String error = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName();
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        
+        LambdaUpdateWrapper<EmailOutbox> wrapper = new LambdaUpdateWrapper<EmailOutbox>()
+                .set(EmailOutbox::getRetryCount, retryCount)
+                .set(EmailOutbox::getLastError, error)
+                .eq(EmailOutbox::getId, outbox.getId())
+                .eq(EmailOutbox::getStatus, EmailOutbox.STATUS_PENDING);
+        if (retryCount >= maxRetries) {
+            wrapper.set(EmailOutbox::getStatus, EmailOutbox.STATUS_FAILED);
+            logger.error("邮件消息投递失败, 已超过最大重试次数: id={}, type={}, to={}, error={}", 
+                    outbox.getId(), outbox.getType(), outbox.getToEmail(), error);
+        } else {
+            long backoff = Math.min(MAX_BACKOFF_SECONDS, 5L << Math.min(retryCount, 20));
+            wrapper.set(EmailOutbox::getNextRetryTime, LocalDateTime.now().plusSeconds(backoff));
+            logger.warn("邮件消息投递失败, {}秒后重试: id={}, type={}, to={}, retry={}, error={}", 
+                    backoff, outbox.getId(), outbox.getType(), outbox.getToEmail(), retryCount, error);
+        }
+        try {
+            emailOutboxMapper.update(null, wrapper);
+            outbox.setRetryCount(retryCount);
+        } catch (Exception e) {
+            logger.error("更新邮件重试状态失败: id={}, error={}", outbox.getId(), e.getMessage(), e);
+        }
+    }
+}
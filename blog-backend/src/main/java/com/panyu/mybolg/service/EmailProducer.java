@@ -1,40 +1,68 @@
 package com.panyu.mybolg.service;
 
 import com.panyu.mybolg.entity.EmailMessage;
+import com.panyu.mybolg.entity.EmailOutbox;
+import com.panyu.mybolg.mapper.EmailOutboxMapper;
 import jakarta.annotation.Resource;
-import org.apache.rocketmq.spring.core.RocketMQTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+
+/**
+ * 邮件生产者
+ * <p>
+ * 邮件写入发件箱表（与调用方处于同一事务），事务提交后异步投递到 RocketMQ，
+ * 请求线程不等待 Broker 响应；投递失败或进程退出时由 {@link EmailOutboxDispatcher} 重试。
+ */
 @Service
 public class EmailProducer {
     
     private static final Logger logger = LoggerFactory.getLogger(EmailProducer.class);
     
     @Resource
-    private RocketMQTemplate rocketMQTemplate;
+    private EmailOutboxMapper emailOutboxMapper;
+    
+    @Resource
+    private EmailOutboxDispatcher emailOutboxDispatcher;
     
-    @Value("${rocketmq.email.topic:email-topic}")
-    private String emailTopic;
+    /**
+     * 投递租约（秒）：期间由当前实例立即投递，超时未投递成功由定时任务接管
+     */
+    @Value("${blog.email-outbox.lease-seconds:60}")
+    private long leaseSeconds;
     
     /**
-     * 发送邮件消息到队列
+     * 发送邮件消息（写入发件箱，事务提交后投递到队列）
      */
     public void sendEmailMessage(EmailMessage emailMessage) {
-        try {
-            logger.info("发送邮件消息到RocketMQ: type={}, to={}, subject={}", 
-                    emailMessage.getType(), emailMessage.getTo(), emailMessage.getSubject());
-            
-            rocketMQTemplate.syncSend(emailTopic, emailMessage);
-            
-            logger.info("邮件消息发送成功: type={}, to={}", 
-                    emailMessage.getType(), emailMessage.getTo());
-        } catch (Exception e) {
-            logger.error("发送邮件消息失败: type={}, to={}, error={}", 
-                    emailMessage.getType(), emailMessage.getTo(), e.getMessage(), e);
-            throw new RuntimeException("发送邮件消息失败: " + e.getMessage(), e);
+        EmailOutbox outbox = new EmailOutbox();
+        outbox.setToEmail(emailMessage.getTo());
+        outbox.setSubject(emailMessage.getSubject());
+        outbox.setContent(emailMessage.getText());
+        outbox.setType(emailMessage.getType());
+        outbox.setStatus(EmailOutbox.STATUS_PENDING);
+        outbox.setRetryCount(0);
+        outbox.setNextRetryTime(LocalDateTime.now().plusSeconds(leaseSeconds));
+        emailOutboxMapper.insert(outbox);
+        
+        logger.info("邮件已写入发件箱: id={}, type={}, to={}, subject={}", 
+                outbox.getId(), emailMessage.getType(), emailMessage.getTo(), emailMessage.getSubject());
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 事务回滚时发件箱记录一起回滚，邮件不会发出
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    emailOutboxDispatcher.dispatchAsync(outbox);
+                }
+            });
+        } else {
+            emailOutboxDispatcher.dispatchAsync(outbox);
         }
     }
 }
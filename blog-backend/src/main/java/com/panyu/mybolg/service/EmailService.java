@@ -5,10 +5,16 @@ import jakarta.annotation.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class EmailService {
     
@@ -28,13 +34,7 @@ public class EmailService {
             logger.info("开始发送邮件: type={}, to={}, subject={}", 
                     emailMessage.getType(), emailMessage.getTo(), emailMessage.getSubject());
             
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(emailFrom);
-            message.setTo(emailMessage.getTo());
-            message.setSubject(emailMessage.getSubject());
-            message.setText(emailMessage.getText());
-            
-            mailSender.send(message);
+            mailSender.send(toMailMessage(emailMessage));
             
             logger.info("邮件发送成功: type={}, to={}", 
                     emailMessage.getType(), emailMessage.getTo());
@@ -44,4 +44,49 @@ public class EmailService {
             throw new RuntimeException("邮件发送失败: " + e.getMessage(), e);
         }
     }
+    
+    /**
+     * 批量发送邮件，整批只建立一次 SMTP 连接
+     *
+     * @return 发送失败的邮件下标（对应 emailMessages）及原因，全部成功返回空 Map
+     * @throws org.springframework.mail.MailException 连接、认证等导致整批未发送时抛出
+     */
+    public Map<Integer, Exception> sendEmails(List<EmailMessage> emailMessages) {
+        Map<Integer, Exception> failed = new LinkedHashMap<>();
+        if (emailMessages.isEmpty()) {
+            return failed;
+        }
+        // SimpleMailMessage 按值比较，用 IdentityHashMap 对应回下标
+        Map<SimpleMailMessage, Integer> indexes = new IdentityHashMap<>();
+        SimpleMailMessage[] messages = new SimpleMailMessage[emailMessages.size()];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = toMailMessage(emailMessages.get(i));
+            indexes.put(messages[i], i);
+        }
+        
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                throw e;
+            }
+            e.getFailedMessages().forEach((message, ex) -> {
+                Integer index = indexes.get(message);
+                if (index != null) {
+                    failed.put(index, ex);
+                }
+            });
+        }
+        logger.info("批量发送邮件完成: total={}, failed={}", messages.length, failed.size());
+        return failed;
+    }
+    
+    private SimpleMailMessage toMailMessage(EmailMessage emailMessage) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(emailFrom);
+        message.setTo(emailMessage.getTo());
+        message.setSubject(emailMessage.getSubject());
+        message.setText(emailMessage.getText());
+        return message;
+    }
 }
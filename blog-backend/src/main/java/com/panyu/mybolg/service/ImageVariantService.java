@@ -0,0 +1,341 @@
+package com.panyu.mybolg.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.panyu.mybolg.entity.Upload;
+import com.panyu.mybolg.entity.UploadVariant;
+import com.panyu.mybolg.enums.ImageVariantType;
+import com.panyu.mybolg.mapper.UploadVariantMapper;
+import com.panyu.mybolg.utils.RustFsUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 图片衍生图处理
+ * <p>
+ * 图片上传后提交到有界线程池，异步以流的方式读取原图（不整体载入内存，超过大小上限的原图不处理），按 {@link ImageVariantType} 等比缩放并压缩，
+ * 上传到与原图相邻的 key，记录到 upload_variant 表。列表接口通过原图URL批量查询缩略图。
+ * 输出格式优先 WebP（需要 classpath 中有 WebP 的 ImageIO 插件），否则不透明图片输出 JPEG、透明图片输出 PNG。
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    /**
+     * 可以处理的原图格式，GIF 可能是动图，不处理
+     */
+    private static final Set<String> SUPPORTED_EXTENSIONS = Set.of("jpg", "jpeg", "png", "bmp", "webp");
+
+    @Resource
+    private RustFsUtil rustFsUtil;
+
+    @Resource
+    private UploadVariantMapper uploadVariantMapper;
+
+    /**
+     * 图片处理线程数
+     */
+    @Value("${blog.image.worker-threads:2}")
+    private int workerThreads;
+
+    /**
+     * 等待处理的任务上限，超过时放弃生成（列表回退为原图）
+     */
+    @Value("${blog.image.queue-size:200}")
+    private int queueSize;
+
+    /**
+     * 压缩质量 0~1
+     */
+    @Value("${blog.image.quality:0.8}")
+    private float quality;
+
+    /**
+     * 原图最大像素数，防止超大图片解码耗尽内存
+     */
+    @Value("${blog.image.max-pixels:40000000}")
+    private long maxPixels;
+
+    /**
+     * 原图最大字节数，超过的不生成衍生图
+     */
+    @Value("${blog.image.max-source-size:52428800}")
+    private long maxSourceSize;
+
+    private ExecutorService executor;
+
+    /**
+     * 有损压缩输出格式：webp 或 jpg
+     */
+    private String lossyFormat;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger index = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workerThreads, workerThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variant-" + index.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        lossyFormat = ImageIO.getImageWritersByFormatName("webp").hasNext() ? "webp" : "jpg";
+        logger.info("图片衍生图处理初始化完成, 线程数: {}, 输出格式: {}", workerThreads, lossyFormat);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * 是否需要生成衍生图
+     */
+    public boolean supports(Upload upload) {
+        if (upload == null || upload.getId() == null || upload.getFilePath() == null) {
+            return false;
+        }
+        if (upload.getFileSize() != null && upload.getFileSize() > maxSourceSize) {
+            return false;
+        }
+        String ext = rustFsUtil.getFileExtension(upload.getFilePath()).toLowerCase();
+        return SUPPORTED_EXTENSIONS.contains(ext);
+    }
+
+    /**
+     * 提交异步生成任务，队列已满时直接放弃，不阻塞上传请求
+     */
+    public void submit(Upload upload) {
+        if (!supports(upload)) {
+            return;
+        }
+        try {
+            executor.execute(() -> generate(upload));
+        } catch (RejectedExecutionException e) {
+            logger.warn("图片处理队列已满，跳过生成衍生图: uploadId={}", upload.getId());
+        }
+    }
+
+    /**
+     * 生成并保存衍生图，重复执行时覆盖之前的记录
+     */
+    public void generate(Upload upload) {
+        try {
+            BufferedImage source;
+            try (ResponseInputStream<GetObjectResponse> in = rustFsUtil.getStream(upload.getFilePath())) {
+                Long size = in.response().contentLength();
+                if (size != null && size > maxSourceSize) {
+                    logger.warn("原图超过大小限制，跳过生成衍生图: uploadId={}, size={}", upload.getId(), size);
+                    in.abort();
+                    return;
+                }
+                source = read(in);
+            }
+            if (source == null) {
+                logger.warn("无法解析图片，跳过生成衍生图: uploadId={}, key={}", upload.getId(), upload.getFilePath());
+                return;
+            }
+            boolean alpha = source.getColorModel().hasAlpha();
+            String format = alpha && "jpg".equals(lossyFormat) ? "png" : lossyFormat;
+            int longest = Math.max(source.getWidth(), source.getHeight());
+
+            List<UploadVariant> variants = new ArrayList<>();
+            for (ImageVariantType type : ImageVariantType.values()) {
+                // 不放大，原图已小于该尺寸时列表直接使用原图
+                if (longest <= type.getMaxEdge()) {
+                    continue;
+                }
+                BufferedImage resized = resize(source, type.getMaxEdge(), alpha);
+                byte[] data = encode(resized, format);
+                String key = variantKey(upload.getFilePath(), type, format);
+                rustFsUtil.upload(data, key, "image/" + ("jpg".equals(format) ? "jpeg" : format));
+
+                UploadVariant variant = new UploadVariant();
+                variant.setUploadId(upload.getId());
+                variant.setSourceUrl(upload.getFileUrl());
+                variant.setVariant(type.getCode());
+                variant.setFormat(format);
+                variant.setFilePath(key);
+                variant.setFileUrl(rustFsUtil.getFileUrl(key));
+                variant.setWidth(resized.getWidth());
+                variant.setHeight(resized.getHeight());
+                variant.setFileSize((long) data.length);
+                variants.add(variant);
+            }
+
+            uploadVariantMapper.delete(new LambdaQueryWrapper<UploadVariant>()
+                    .eq(UploadVariant::getUploadId, upload.getId()));
+            variants.forEach(uploadVariantMapper::insert);
+            logger.info("衍生图生成完成: uploadId={}, 数量: {}", upload.getId(), variants.size());
+        } catch (Exception e) {
+            logger.error("衍生图生成失败: uploadId={}, error={}", upload.getId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 按原图URL批量查询缩略图URL，没有缩略图的不在结果中
+     */
+    public Map<String, String> getThumbnailUrls(Collection<String> sourceUrls) {
+        List<String> urls = sourceUrls.stream()
+                .filter(url -> url != null && !url.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+        if (urls.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<UploadVariant> variants = uploadVariantMapper.selectList(new LambdaQueryWrapper<UploadVariant>()
+                .select(UploadVariant::getSourceUrl, UploadVariant::getFileUrl)
+                .eq(UploadVariant::getVariant, ImageVariantType.THUMBNAIL.getCode())
+                .in(UploadVariant::getSourceUrl, urls));
+        return variants.stream()
+                .collect(Collectors.toMap(UploadVariant::getSourceUrl, UploadVariant::getFileUrl, (a, b) -> a));
+    }
+
+    /**
+     * 查询某个上传文件的全部衍生图
+     */
+    public List<UploadVariant> listVariants(Long uploadId) {
+        return uploadVariantMapper.selectList(new LambdaQueryWrapper<UploadVariant>()
+                .eq(UploadVariant::getUploadId, uploadId));
+    }
+
+    /**
+     * 删除原图的衍生图文件和记录（相同内容的上传记录共用原图，按原图URL删除）
+     */
+    public void deleteVariants(String sourceUrl) {
+        if (sourceUrl == null || sourceUrl.isEmpty()) {
+            return;
+        }
+        LambdaQueryWrapper<UploadVariant> wrapper = new LambdaQueryWrapper<UploadVariant>()
+                .eq(UploadVariant::getSourceUrl, sourceUrl);
+        List<UploadVariant> variants = uploadVariantMapper.selectList(wrapper);
+        if (variants.isEmpty()) {
+            return;
+        }
+        Map<String, String> failed = rustFsUtil.batchDelete(
+                variants.stream().map(UploadVariant::getFilePath).collect(Collectors.toList()));
+        if (!failed.isEmpty()) {
+            logger.warn("部分衍生图删除失败: sourceUrl={}, 失败: {}", sourceUrl, failed.keySet());
+        }
+        uploadVariantMapper.delete(wrapper);
+    }
+
+    /**
+     * 衍生图 key：原图 key 去掉扩展名后加尺寸后缀，例如 covers/2024-01-01/xxx_thumbnail.webp
+     */
+    private String variantKey(String sourceKey, ImageVariantType type, String format) {
+        int dot = sourceKey.lastIndexOf('.');
+        String base = dot > sourceKey.lastIndexOf('/') ? sourceKey.substring(0, dot) : sourceKey;
+        return base + "_" + type.getCode() + "." + format;
+    }
+
+    /**
+     * 从流中解码图片，先读取尺寸，超过像素上限的不解码
+     */
+    private BufferedImage read(InputStream data) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(data)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    logger.warn("图片像素数超过限制: {}", pixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 等比缩放到最长边为 maxEdge
+     * <p>
+     * 大倍率缩小时逐次减半，避免一次双线性插值丢失细节产生锯齿。
+     */
+    private BufferedImage resize(BufferedImage source, int maxEdge, boolean alpha) {
+        double scale = (double) maxEdge / Math.max(source.getWidth(), source.getHeight());
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        int imageType = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, imageType);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                if (!alpha) {
+                    g.setColor(Color.WHITE);
+                    g.fillRect(0, 0, width, height);
+                }
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    /**
+     * 按格式编码，支持压缩的格式使用配置的质量
+     */
+    private byte[] encode(BufferedImage image, String format) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                String[] types = param.getCompressionTypes();
+                if (param.getCompressionType() == null && types != null && types.length > 0) {
+                    param.setCompressionType(types[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,208 @@
+package com.panyu.mybolg.service;
+
+import com.panyu.mybolg.entity.Article;
+import com.panyu.mybolg.entity.Comment;
+import com.panyu.mybolg.mapper.ArticleMapper;
+import com.panyu.mybolg.mapper.CommentMapper;
+import com.panyu.mybolg.util.WriteBehindCounter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 点赞服务（文章、评论）
+ * <p>
+ * 每个点赞对象在 Redis 中维护一个点赞者集合（用户ID或IP），SADD 成功才计数，
+ * 保证同一用户/IP 只能点赞一次；点赞数通过 {@link WriteBehindCounter} 定时批量落库。
+ * 调用方需先确认点赞对象存在；点赞者集合在最后一次点赞后保留一段时间，对象删除时一并删除。
+ */
+@Service
+public class LikeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LikeService.class);
+
+    private static final String ARTICLE_LIKERS_PREFIX = "like:article:";
+
+    private static final String COMMENT_LIKERS_PREFIX = "like:comment:";
+
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    /**
+     * 点赞者集合在最后一次点赞后的保留天数，过期后同一用户可再次点赞
+     */
+    @Value("${blog.like-counter.likers-ttl-days:365}")
+    private long likersTtlDays;
+
+    @Resource
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Resource
+    private ArticleMapper articleMapper;
+
+    @Resource
+    private CommentMapper commentMapper;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private CounterFlushLog counterFlushLog;
+
+    private WriteBehindCounter articleCounter;
+
+    private WriteBehindCounter commentCounter;
+
+    @PostConstruct
+    public void init() {
+        this.articleCounter = new WriteBehindCounter(redisTemplate, "article_like");
+        this.commentCounter = new WriteBehindCounter(redisTemplate, "comment_like");
+    }
+
+    /**
+     * 点赞文章
+     *
+     * @param liker 点赞者标识（用户ID或IP）
+     * @return 是否为首次点赞
+     */
+    public boolean likeArticle(Long articleId, String liker) {
+        return like(ARTICLE_LIKERS_PREFIX, articleCounter, articleId, liker);
+    }
+
+    /**
+     * 点赞评论
+     *
+     * @param liker 点赞者标识（用户ID或IP）
+     * @return 是否为首次点赞
+     */
+    public boolean likeComment(Long commentId, String liker) {
+        return like(COMMENT_LIKERS_PREFIX, commentCounter, commentId, liker);
+    }
+
+    /**
+     * 文章删除后清理点赞者集合
+     */
+    public void removeArticleLikers(Long articleId) {
+        removeLikers(ARTICLE_LIKERS_PREFIX, articleId);
+    }
+
+    /**
+     * 评论删除后清理点赞者集合
+     */
+    public void removeCommentLikers(Long commentId) {
+        removeLikers(COMMENT_LIKERS_PREFIX, commentId);
+    }
+
+    /**
+     * 将未落库的点赞数合并到文章对象中
+     */
+    public void mergeArticlePending(List<Article> articles) {
+        if (articles == null || articles.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> pending = articleCounter.getPending(articles.stream()
+                .map(Article::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+        articles.forEach(article -> {
+            Long delta = pending.get(article.getId());
+            if (delta != null) {
+                int base = article.getLikeCount() != null ? article.getLikeCount() : 0;
+                article.setLikeCount(base + delta.intValue());
+            }
+        });
+    }
+
+    /**
+     * 将未落库的点赞数合并到评论对象中
+     */
+    public void mergeCommentPending(List<Comment> comments) {
+        if (comments == null || comments.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> pending = commentCounter.getPending(comments.stream()
+                .map(Comment::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+        comments.forEach(comment -> {
+            Long delta = pending.get(comment.getId());
+            if (delta != null) {
+                int base = comment.getLikeCount() != null ? comment.getLikeCount() : 0;
+                comment.setLikeCount(base + delta.intValue());
+            }
+        });
+    }
+
+    /**
+     * 本地增量定时合并到 Redis
+     */
+    @Scheduled(fixedDelayString = "${blog.like-counter.sync-interval:1000}")
+    public void syncToRedis() {
+        articleCounter.syncToRedis();
+        commentCounter.syncToRedis();
+    }
+
+    /**
+     * Redis 增量定时批量落库
+     */
+    @Scheduled(fixedDelayString = "${blog.like-counter.flush-interval:30000}")
+    public void flushToDb() {
+        flush(articleCounter, articleMapper::incrementLikeCounts, "文章");
+        flush(commentCounter, commentMapper::incrementLikeCounts, "评论");
+    }
+
+    @PreDestroy
+    public void destroy() {
+        syncToRedis();
+    }
+
+    private boolean like(String prefix, WriteBehindCounter counter, Long id, String liker) {
+        if (id == null || liker == null || liker.isEmpty()) {
+            return false;
+        }
+        String key = prefix + id;
+        Long added = redisTemplate.opsForSet().add(key, liker);
+        if (added == null || added == 0) {
+            return false;
+        }
+        redisTemplate.expire(key, Duration.ofDays(likersTtlDays));
+        counter.increment(id);
+        return true;
+    }
+
+    private void removeLikers(String prefix, Long id) {
+        if (id == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(prefix + id);
+        } catch (Exception e) {
+            logger.warn("清理点赞者集合失败: key={}, error={}", prefix + id, e.getMessage());
+        }
+    }
+
+    private void flush(WriteBehindCounter counter, Consumer<Map<Long, Long>> writer, String name) {
+        try {
+            counter.flush((flushId, deltas) -> transactionTemplate.executeWithoutResult(status -> {
+                if (counterFlushLog.markApplied(flushId)) {
+                    WriteBehindCounter.partition(deltas, FLUSH_BATCH_SIZE).forEach(writer);
+                }
+            }), Duration.ofMinutes(1));
+        } catch (Exception e) {
+            logger.error("{}点赞数落库失败: {}", name, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.panyu.mybolg.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.panyu.mybolg.context.UserPrincipal;
+import com.panyu.mybolg.entity.Category;
+import com.panyu.mybolg.entity.Tag;
+import com.panyu.mybolg.entity.User;
+import com.panyu.mybolg.mapper.CategoryMapper;
+import com.panyu.mybolg.mapper.TagMapper;
+import com.panyu.mybolg.mapper.UserMapper;
+import com.panyu.mybolg.util.TwoLevelCache;
+import com.panyu.mybolg.vo.TagVO;
+import com.panyu.mybolg.vo.UserBrief;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * 列表展示用的基础信息缓存（作者、分类名、标签），以及鉴权用的用户角色状态
+ * <p>
+ * 本地 Caffeine + Redis 两级缓存，数据变更时删除两级缓存，
+ * 并通过 Redis 发布订阅通知其他实例删除本地缓存。
+ * 回源直接使用 Mapper，避免与各 Service 形成循环依赖。
+ */
+@Service
+public class LookupCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LookupCacheService.class);
+
+    private static final String INVALIDATE_CHANNEL = "cache:invalidate";
+
+    private static final long LOCAL_MAX_SIZE = 10000;
+
+    private static final Duration LOCAL_TTL = Duration.ofMinutes(5);
+
+    private static final Duration REDIS_TTL = Duration.ofMinutes(30);
+
+    @Resource
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private CategoryMapper categoryMapper;
+
+    @Resource
+    private TagMapper tagMapper;
+
+    private TwoLevelCache<UserBrief> userCache;
+
+    private TwoLevelCache<UserPrincipal> principalCache;
+
+    private TwoLevelCache<String> categoryNameCache;
+
+    private TwoLevelCache<TagVO> tagCache;
+
+    private Map<String, TwoLevelCache<?>> caches;
+
+    @PostConstruct
+    public void init() {
+        userCache = new TwoLevelCache<>(redisTemplate, "user_brief", UserBrief.class, LOCAL_MAX_SIZE, LOCAL_TTL, REDIS_TTL);
+        principalCache = new TwoLevelCache<>(redisTemplate, "user_principal", UserPrincipal.class, LOCAL_MAX_SIZE, LOCAL_TTL, REDIS_TTL);
+        categoryNameCache = new TwoLevelCache<>(redisTemplate, "category_name", String.class, LOCAL_MAX_SIZE, LOCAL_TTL, REDIS_TTL);
+        tagCache = new TwoLevelCache<>(redisTemplate, "tag", TagVO.class, LOCAL_MAX_SIZE, LOCAL_TTL, REDIS_TTL);
+        caches = Map.of(
+                userCache.getName(), userCache,
+                principalCache.getName(), principalCache,
+                categoryNameCache.getName(), categoryNameCache,
+                tagCache.getName(), tagCache);
+
+        // 其他实例删除缓存时，同步删除本地缓存
+        redisMessageListenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            int idx = body.lastIndexOf(':');
+            if (idx <= 0) {
+                return;
+            }
+            TwoLevelCache<?> cache = caches.get(body.substring(0, idx));
+            if (cache != null) {
+                try {
+                    cache.evictLocal(Long.parseLong(body.substring(idx + 1)));
+                } catch (NumberFormatException e) {
+                    // 忽略非法消息
+                }
+            }
+        }, new ChannelTopic(INVALIDATE_CHANNEL));
+    }
+
+    /**
+     * 批量获取用户简要信息
+     */
+    public Map<Long, UserBrief> getUserBriefs(Collection<Long> userIds) {
+        return userCache.getAll(userIds, ids -> {
+            LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(User::getId, User::getUsername, User::getNickname, User::getAvatar)
+                   .in(User::getId, ids);
+            return userMapper.selectList(wrapper).stream()
+                    .collect(Collectors.toMap(User::getId, user -> {
+                        UserBrief brief = new UserBrief();
+                        brief.setId(user.getId());
+                        brief.setUsername(user.getUsername());
+                        brief.setNickname(user.getNickname());
+                        brief.setAvatar(user.getAvatar());
+                        return brief;
+                    }));
+        });
+    }
+
+    /**
+     * 获取用户鉴权信息（ID、角色、状态），用户不存在返回 null
+     */
+    public UserPrincipal getUserPrincipal(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        return principalCache.getAll(Collections.singletonList(userId), ids -> {
+            LambdaQueryWrapper<User> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(User::getId, User::getRole, User::getStatus)
+                   .in(User::getId, ids);
+            return userMapper.selectList(wrapper).stream()
+                    .collect(Collectors.toMap(User::getId, user -> {
+                        UserPrincipal principal = new UserPrincipal();
+                        principal.setId(user.getId());
+                        principal.setRole(user.getRole());
+                        principal.setStatus(user.getStatus());
+                        return principal;
+                    }));
+        }).get(userId);
+    }
+
+    /**
+     * 批量获取分类名称
+     */
+    public Map<Long, String> getCategoryNames(Collection<Long> categoryIds) {
+        return categoryNameCache.getAll(categoryIds, ids -> {
+            LambdaQueryWrapper<Category> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(Category::getId, Category::getName)
+                   .in(Category::getId, ids);
+            return categoryMapper.selectList(wrapper).stream()
+                    .collect(Collectors.toMap(Category::getId, Category::getName));
+        });
+    }
+
+    /**
+     * 批量获取标签（名称和颜色）
+     */
+    public Map<Long, TagVO> getTags(Collection<Long> tagIds) {
+        return tagCache.getAll(tagIds, ids -> {
+            LambdaQueryWrapper<Tag> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(Tag::getId, Tag::getName, Tag::getColor)
+                   .in(Tag::getId, ids);
+            return tagMapper.selectList(wrapper).stream()
+                    .collect(Collectors.toMap(Tag::getId, tag -> new TagVO(tag.getName(), tag.getColor())));
+        });
+    }
+
+    public void evictUser(Long userId) {
+        evict(userCache, userId);
+        evict(principalCache, userId);
+    }
+
+    public void evictCategory(Long categoryId) {
+        evict(categoryNameCache, categoryId);
+    }
+
+    public void evictTag(Long tagId) {
+        evict(tagCache, tagId);
+    }
+
+    private void evict(TwoLevelCache<?> cache, Long id) {
+        if (id == null) {
+            return;
+        }
+        try {
+            cache.evict(id);
+            redisTemplate.convertAndSend(INVALIDATE_CHANNEL, cache.getName() + ":" + id);
+        } catch (Exception e) {
+            // Redis 不可用时至少保证本地缓存失效
+            cache.evictLocal(id);
+            logger.warn("删除缓存失败: cache={}, id={}, error={}", cache.getName(), id, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package com.panyu.mybolg.service;
+
+import com.alibaba.fastjson2.JSON;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.panyu.mybolg.entity.Article;
+import com.panyu.mybolg.entity.Upload;
+import com.panyu.mybolg.entity.UploadVariant;
+import com.panyu.mybolg.entity.User;
+import com.panyu.mybolg.exception.BusinessException;
+import com.panyu.mybolg.mapper.ArticleMapper;
+import com.panyu.mybolg.mapper.UploadMapper;
+import com.panyu.mybolg.mapper.UploadVariantMapper;
+import com.panyu.mybolg.mapper.UserMapper;
+import com.panyu.mybolg.utils.RustFsUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 孤儿文件回收（标记-清除）
+ * <p>
+ * 先按ID分批扫描 upload、upload_variant、文章封面和 Markdown 正文、用户头像，收集仍被引用的对象 key；
+ * 再分页列出存储中受管目录下的对象，未被引用且修改时间超过保护期的视为孤儿。
+ * 孤儿第一次发现时只做标记，之后的回收中仍未被引用、且标记时间超过保护期的才批量删除，
+ * 避免误删刚上传还没写入引用的文件。dry-run 只生成报告，不标记也不删除。
+ * 手动触发时在后台线程执行，接口立即返回运行状态。
+ */
+@Service
+public class MediaGarbageCollector {
+
+    private static final Logger logger = LoggerFactory.getLogger(MediaGarbageCollector.class);
+
+    /**
+     * Hash，field 为孤儿对象 key，value 为首次标记时间戳
+     */
+    private static final String MARK_KEY = "media_gc:marked";
+
+    private static final String REPORT_KEY = "media_gc:last_report";
+
+    /**
+     * 多实例互斥锁，value 为当前回收的开始时间和是否 dry-run
+     */
+    private static final String LOCK_KEY = "media_gc:lock";
+
+    private static final Duration LOCK_TIMEOUT = Duration.ofHours(1);
+
+    /**
+     * DeleteObjects 单次上限
+     */
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    /**
+     * 报告中列出的孤儿 key 数量
+     */
+    private static final int SAMPLE_SIZE = 100;
+
+    /**
+     * 文章带正文，单批行数单独限制
+     */
+    private static final int ARTICLE_BATCH_SIZE = 100;
+
+    @Resource
+    private RustFsUtil rustFsUtil;
+
+    @Resource
+    private UploadMapper uploadMapper;
+
+    @Resource
+    private UploadVariantMapper uploadVariantMapper;
+
+    @Resource
+    private ArticleMapper articleMapper;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Value("${blog.media-gc.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 定时任务是否只生成报告
+     */
+    @Value("${blog.media-gc.dry-run:true}")
+    private boolean dryRun;
+
+    /**
+     * 保护期：对象修改时间和标记时间都要早于该时长才会删除
+     */
+    @Value("${blog.media-gc.grace-hours:24}")
+    private long graceHours;
+
+    /**
+     * 扫描数据表的单批行数
+     */
+    @Value("${blog.media-gc.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 受管目录，只回收这些前缀下的对象
+     */
+    @Value("${blog.media-gc.prefixes:common/,images/,covers/,avatars/}")
+    private List<String> prefixes;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * 手动触发的回收在该线程上执行
+     */
+    private ExecutorService executor;
+
+    /**
+     * 匹配正文、封面、头像中指向本存储的 URL，分组为对象 key
+     */
+    private Pattern urlPattern;
+
+    @PostConstruct
+    public void init() {
+        urlPattern = Pattern.compile(Pattern.quote(rustFsUtil.getFileUrl("")) + "([^\\s()\"'<>?#\\]]+)");
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "media-gc");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(cron = "${blog.media-gc.cron:0 0 4 * * ?}")
+    public void scheduledCollect() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            collect(dryRun);
+        } catch (BusinessException e) {
+            logger.info("跳过孤儿文件回收: {}", e.getMessage());
+        } catch (Exception e) {
+            logger.error("孤儿文件回收失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 执行一次回收，多实例间同一时刻只有一个在执行
+     *
+     * @return 回收报告
+     */
+    public Map<String, Object> collect(boolean dryRun) {
+        acquire(dryRun);
+        try {
+            return doCollect(dryRun);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * 在后台开始一次回收，已在执行时抛出 409
+     *
+     * @return 当前运行状态
+     */
+    public Map<String, Object> start(boolean dryRun) {
+        acquire(dryRun);
+        try {
+            executor.execute(() -> {
+                try {
+                    doCollect(dryRun);
+                } catch (Exception e) {
+                    logger.error("孤儿文件回收失败: {}", e.getMessage(), e);
+                } finally {
+                    release();
+                }
+            });
+        } catch (RuntimeException e) {
+            release();
+            throw e;
+        }
+        return getStatus();
+    }
+
+    /**
+     * 运行状态：是否正在执行（任一实例）、当前回收的参数和最近一次回收报告
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        String current = redisTemplate.opsForValue().get(LOCK_KEY);
+        status.put("running", current != null);
+        status.put("current", current != null ? JSON.parseObject(current) : null);
+        status.put("lastReport", getLastReport());
+        return status;
+    }
+
+    /**
+     * 最近一次回收报告
+     */
+    public Map<String, Object> getLastReport() {
+        String json = redisTemplate.opsForValue().get(REPORT_KEY);
+        return json != null ? JSON.parseObject(json) : Collections.emptyMap();
+    }
+
+    private void acquire(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) {
+            throw new BusinessException(409, "孤儿文件回收正在执行");
+        }
+        try {
+            Map<String, Object> current = new LinkedHashMap<>();
+            current.put("startTime", Instant.now().toString());
+            current.put("dryRun", dryRun);
+            Boolean locked = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, JSON.toJSONString(current), LOCK_TIMEOUT);
+            if (!Boolean.TRUE.equals(locked)) {
+                throw new BusinessException(409, "孤儿文件回收正在执行");
+            }
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    private void release() {
+        try {
+            redisTemplate.delete(LOCK_KEY);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Map<String, Object> doCollect(boolean dryRun) {
+        long start = System.currentTimeMillis();
+        Set<String> referenced = collectReferencedKeys();
+        long graceBefore = start - Duration.ofHours(graceHours).toMillis();
+        Map<String, Long> oldMarks = loadMarks();
+        Map<String, Long> newMarks = new HashMap<>();
+
+        List<String> pending = new ArrayList<>();
+        List<String> sample = new ArrayList<>();
+        Map<String, String> failed = new LinkedHashMap<>();
+        Counters counts = new Counters();
+
+        for (String prefix : prefixes) {
+            rustFsUtil.listObjects(prefix, object -> {
+                counts.scanned++;
+                String key = object.key();
+                if (referenced.contains(key) || object.lastModified().toEpochMilli() > graceBefore) {
+                    return;
+                }
+                counts.orphans++;
+                counts.orphanBytes += object.size() != null ? object.size() : 0;
+                if (sample.size() < SAMPLE_SIZE) {
+                    sample.add(key);
+                }
+
+                Long markedAt = oldMarks.get(key);
+                if (markedAt != null && markedAt <= graceBefore) {
+                    pending.add(key);
+                    if (pending.size() >= DELETE_BATCH_SIZE) {
+                        counts.deleted += deleteOrphans(pending, dryRun, failed);
+                        pending.clear();
+                    }
+                } else {
+                    counts.marked++;
+                    newMarks.put(key, markedAt != null ? markedAt : start);
+                }
+            });
+        }
+        if (!pending.isEmpty()) {
+            counts.deleted += deleteOrphans(pending, dryRun, failed);
+        }
+
+        if (!dryRun) {
+            // 删除失败的保留原标记，下次回收重试
+            failed.keySet().forEach(key -> newMarks.put(key, oldMarks.getOrDefault(key, start)));
+            saveMarks(newMarks);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("dryRun", dryRun);
+        report.put("startTime", Instant.ofEpochMilli(start).toString());
+        report.put("durationMs", System.currentTimeMillis() - start);
+        report.put("referencedKeys", referenced.size());
+        report.put("scannedObjects", counts.scanned);
+        report.put("orphanObjects", counts.orphans);
+        report.put("orphanBytes", counts.orphanBytes);
+        // dry-run 时为本次会标记、会删除的数量
+        report.put("marked", counts.marked);
+        report.put("deleted", counts.deleted);
+        report.put("failed", failed.size());
+        report.put("sample", sample);
+        try {
+            redisTemplate.opsForValue().set(REPORT_KEY, JSON.toJSONString(report));
+        } catch (Exception e) {
+            logger.warn("保存孤儿文件回收报告失败: {}", e.getMessage());
+        }
+        logger.info("孤儿文件回收完成: {}", report);
+        return report;
+    }
+
+    /**
+     * 收集仍被引用的对象 key
+     */
+    private Set<String> collectReferencedKeys() {
+        Set<String> keys = new HashSet<>();
+        Set<String> liveUrls = new HashSet<>();
+
+        scan(uploadMapper, () -> new LambdaQueryWrapper<Upload>()
+                        .select(Upload::getId, Upload::getFilePath, Upload::getFileUrl),
+                Upload::getId, batchSize, upload -> {
+                    keys.add(upload.getFilePath());
+                    liveUrls.add(upload.getFileUrl());
+                });
+
+        // 原图仍有记录的衍生图
+        scan(uploadVariantMapper, () -> new LambdaQueryWrapper<UploadVariant>()
+                        .select(UploadVariant::getId, UploadVariant::getSourceUrl, UploadVariant::getFilePath),
+                UploadVariant::getId, batchSize, variant -> {
+                    if (liveUrls.contains(variant.getSourceUrl())) {
+                        keys.add(variant.getFilePath());
+                    }
+                });
+
+        // 封面和正文中的图片，包括没有 upload 记录的
+        scan(articleMapper, () -> new LambdaQueryWrapper<Article>()
+                        .select(Article::getId, Article::getCover, Article::getContent),
+                Article::getId, Math.min(batchSize, ARTICLE_BATCH_SIZE), article -> {
+                    extractKeys(article.getCover(), keys);
+                    extractKeys(article.getContent(), keys);
+                });
+
+        scan(userMapper, () -> new LambdaQueryWrapper<User>()
+                        .select(User::getId, User::getAvatar),
+                User::getId, batchSize, user -> extractKeys(user.getAvatar(), keys));
+
+        return keys;
+    }
+
+    /**
+     * 按ID分批扫描整张表，不一次性加载
+     */
+    private <T> void scan(BaseMapper<T> mapper, Supplier<LambdaQueryWrapper<T>> query,
+                          SFunction<T, Long> idGetter, int size, Consumer<T> consumer) {
+        long lastId = 0;
+        while (true) {
+            List<T> rows = mapper.selectList(query.get()
+                    .gt(idGetter, lastId)
+                    .orderByAsc(idGetter)
+                    .last("LIMIT " + size));
+            rows.forEach(consumer);
+            if (rows.size() < size) {
+                return;
+            }
+            lastId = idGetter.apply(rows.get(rows.size() - 1));
+        }
+    }
+
+    /**
+     * 从文本中提取本存储的对象 key，URL 编码过的同时加入解码后的 key
+     */
+    private void extractKeys(String text, Set<String> keys) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        Matcher matcher = urlPattern.matcher(text);
+        while (matcher.find()) {
+            String key = matcher.group(1);
+            keys.add(key);
+            if (key.indexOf('%') >= 0) {
+                try {
+                    keys.add(URLDecoder.decode(key, StandardCharsets.UTF_8));
+                } catch (IllegalArgumentException e) {
+                    // 非法编码，忽略
+                }
+            }
+        }
+    }
+
+    /**
+     * 删除一批孤儿对象及其残留的衍生图记录，返回成功删除数
+     */
+    private int deleteOrphans(List<String> keys, boolean dryRun, Map<String, String> failed) {
+        if (dryRun) {
+            return keys.size();
+        }
+        // 扫描引用之后可能有相同内容的上传复用了对象，删除前按 key 再确认一次
+        Set<String> reused = uploadMapper.selectList(new LambdaQueryWrapper<Upload>()
+                        .select(Upload::getFilePath)
+                        .in(Upload::getFilePath, keys)).stream()
+                .map(Upload::getFilePath)
+                .collect(Collectors.toSet());
+        List<String> orphanKeys = keys.stream().filter(key -> !reused.contains(key)).toList();
+        if (orphanKeys.isEmpty()) {
+            return 0;
+        }
+        Map<String, String> errors = rustFsUtil.batchDelete(orphanKeys);
+        failed.putAll(errors);
+        List<String> deletedKeys = orphanKeys.stream().filter(key -> !errors.containsKey(key)).toList();
+        if (!deletedKeys.isEmpty()) {
+            uploadVariantMapper.delete(new LambdaQueryWrapper<UploadVariant>()
+                    .in(UploadVariant::getFilePath, deletedKeys));
+        }
+        return deletedKeys.size();
+    }
+
+    private Map<String, Long> loadMarks() {
+        Map<String, Long> marks = new HashMap<>();
+        redisTemplate.opsForHash().entries(MARK_KEY).forEach((key, value) -> {
+            try {
+                marks.put(String.valueOf(key), Long.parseLong(String.valueOf(value)));
+            } catch (NumberFormatException e) {
+                // 忽略非法数据
+            }
+        });
+        return marks;
+    }
+
+    /**
+     * 用本次的孤儿替换标记，已不是孤儿或已删除的对象不再保留标记
+     */
+    private void saveMarks(Map<String, Long> marks) {
+        redisTemplate.delete(MARK_KEY);
+        Map<String, String> batch = new HashMap<>();
+        for (Map.Entry<String, Long> entry : marks.entrySet()) {
+            batch.put(entry.getKey(), String.valueOf(entry.getValue()));
+            if (batch.size() >= DELETE_BATCH_SIZE) {
+                redisTemplate.opsForHash().putAll(MARK_KEY, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            redisTemplate.opsForHash().putAll(MARK_KEY, batch);
+        }
+    }
+
+    /**
+     * 单次回收的统计
+     */
+    private static class Counters {
+
+        private long scanned;
+
+        private long orphans;
+
+        private long orphanBytes;
+
+        private long marked;
+
+        private long deleted;
+    }
+}
@@ -4,7 +4,9 @@ import com.baomidou.mybatisplus.extension.service.IService;
 import com.panyu.mybolg.entity.Upload;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface UploadService extends IService<Upload> {
     
@@ -23,6 +25,33 @@ public interface UploadService extends IService<Upload> {
      */
     Map<String, Object> uploadImage(MultipartFile file, String bizDir, Long userId);
     
+    /**
+     * 流式上传（请求体即文件内容），在上传线程池中读取并分片并行上传，不占用请求线程
+     *
+     * @param contentLength 请求体长度，未知时为 -1，仅用于进度展示
+     * @param progressId    进度ID，可通过 {@link #getUploadProgress} 查询，为空时不记录进度
+     */
+    CompletableFuture<Map<String, Object>> uploadStream(InputStream in, String originalName, String contentType,
+                                                        long contentLength, String bizDir, Long userId, String progressId);
+    
+    /**
+     * 查询流式上传进度
+     */
+    Map<String, Object> getUploadProgress(String progressId);
+    
+    /**
+     * 申请预签名上传地址，客户端直接 PUT 到存储，不经过后端
+     *
+     * @param contentType 上传时必须使用的 Content-Type
+     * @param fileSize    上传时必须使用的 Content-Length
+     */
+    Map<String, Object> presignUpload(String fileName, String contentType, Long fileSize, String bizDir, Long userId);
+    
+    /**
+     * 预签名上传完成回调：校验存储中的对象后保存上传记录
+     */
+    Map<String, Object> completePresignedUpload(String key, Long userId);
+    
     /**
      * 删除文件（同时删除存储和数据库记录）
      */
@@ -0,0 +1,20 @@
+package com.panyu.mybolg.service;
+
+import com.panyu.mybolg.enums.EmailLane;
+import org.apache.rocketmq.spring.annotation.RocketMQMessageListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * 紧急通道邮件消费者（验证码、找回密码），与普通通道使用不同的 Topic 和消费组
+ */
+@Service
+@RocketMQMessageListener(
+    topic = "${rocketmq.email.urgent.topic:email-urgent-topic}",
+    consumerGroup = "${rocketmq.email.urgent.consumer-group:email-urgent-consumer-group}"
+)
+public class UrgentEmailConsumer extends AbstractEmailConsumer {
+    
+    public UrgentEmailConsumer() {
+        super(EmailLane.URGENT, 8, 8);
+    }
+}
@@ -28,4 +28,9 @@ public interface UserService extends IService<User> {
      * 分页查询用户列表
      */
     Page<User> listUsers(Integer pageNum, Integer pageSize, String username, String role);
+    
+    /**
+     * 更新用户基本信息（仅昵称、邮箱、头像）
+     */
+    boolean updateBasicInfo(Long userId, User user);
 }
@@ -0,0 +1,149 @@
+package com.panyu.mybolg.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.panyu.mybolg.entity.Article;
+import com.panyu.mybolg.mapper.ArticleMapper;
+import com.panyu.mybolg.util.WriteBehindCounter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * 文章浏览量写回服务
+ * <p>
+ * 浏览量不再每次读写整行文章，而是先累加到 {@link WriteBehindCounter}，
+ * 定时以 view_count = view_count + ? 的方式批量落库。
+ */
+@Service
+public class ViewCountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ViewCountService.class);
+
+    /**
+     * 每条 UPDATE 语句最多处理的文章数
+     */
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    @Resource
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Resource
+    private ArticleMapper articleMapper;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private CounterFlushLog counterFlushLog;
+
+    private WriteBehindCounter counter;
+
+    @PostConstruct
+    public void init() {
+        this.counter = new WriteBehindCounter(redisTemplate, "article_view");
+    }
+
+    /**
+     * 记录一次浏览
+     */
+    public void increment(Long articleId) {
+        counter.increment(articleId);
+    }
+
+    /**
+     * 将未落库的浏览量合并到文章对象中
+     */
+    public void mergePending(List<Article> articles) {
+        if (articles == null || articles.isEmpty()) {
+            return;
+        }
+        List<Long> ids = articles.stream()
+                .map(Article::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        Map<Long, Long> pending = counter.getPending(ids);
+        if (pending.isEmpty()) {
+            return;
+        }
+        articles.forEach(article -> {
+            Long delta = pending.get(article.getId());
+            if (delta != null) {
+                int base = article.getViewCount() != null ? article.getViewCount() : 0;
+                article.setViewCount(base + delta.intValue());
+            }
+        });
+    }
+
+    /**
+     * 已发布且已审核通过的文章尚未落库的浏览量之和
+     * <p>
+     * 待落库的只是两次落库之间被浏览过的文章，按这些ID回表过滤状态，不扫描全部文章。
+     */
+    public long getPublishedPending() {
+        Map<Long, Long> pending = counter.getAllPending();
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        long total = 0;
+        List<Long> ids = new ArrayList<>(pending.keySet());
+        for (int from = 0; from < ids.size(); from += FLUSH_BATCH_SIZE) {
+            List<Article> published = articleMapper.selectList(new LambdaQueryWrapper<Article>()
+                    .select(Article::getId)
+                    .eq(Article::getStatus, 1)
+                    .eq(Article::getAuditStatus, 1)
+                    .in(Article::getId, ids.subList(from, Math.min(from + FLUSH_BATCH_SIZE, ids.size()))));
+            for (Article article : published) {
+                total += pending.get(article.getId());
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 本地增量定时合并到 Redis
+     */
+    @Scheduled(fixedDelayString = "${blog.view-counter.sync-interval:1000}")
+    public void syncToRedis() {
+        counter.syncToRedis();
+    }
+
+    /**
+     * Redis 增量定时批量落库
+     */
+    @Scheduled(fixedDelayString = "${blog.view-counter.flush-interval:30000}")
+    public void flushToDb() {
+        try {
+            counter.flush(this::writeDeltas, Duration.ofMinutes(1));
+        } catch (Exception e) {
+            logger.error("浏览量落库失败: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // 停机前把本地增量交给 Redis，由其他实例或下次启动落库
+        counter.syncToRedis();
+    }
+
+    private void writeDeltas(String flushId, Map<Long, Long> deltas) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (counterFlushLog.markApplied(flushId)) {
+                WriteBehindCounter.partition(deltas, FLUSH_BATCH_SIZE).forEach(articleMapper::incrementViewCounts);
+            }
+        });
+        logger.debug("浏览量落库完成, 文章数: {}", deltas.size());
+    }
+}
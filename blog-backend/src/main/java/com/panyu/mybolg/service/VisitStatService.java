@@ -0,0 +1,228 @@
+package com.panyu.mybolg.service;
+
+import com.panyu.mybolg.mapper.ArticleDailyStatMapper;
+import com.panyu.mybolg.util.WriteBehindCounter;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 访问统计服务
+ * <p>
+ * 每次浏览按天（文章维度）和按小时（全站维度）计数：
+ * 按天计数通过 {@link WriteBehindCounter} 汇总到 Redis，再由定时任务写入 article_daily_stat；
+ * 按小时计数只保存在 Redis，保留两天，用于最近24小时趋势。
+ */
+@Service
+public class VisitStatService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VisitStatService.class);
+
+    private static final DateTimeFormatter KEY_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+
+    /**
+     * 每条 INSERT 语句最多处理的文章数
+     */
+    private static final int ROLLUP_BATCH_SIZE = 500;
+
+    /**
+     * 按小时计数在 Redis 中的保留时间
+     */
+    private static final Duration HOURLY_TTL = Duration.ofDays(2);
+
+    /**
+     * 趋势查询允许的最大天数
+     */
+    private static final int MAX_TREND_DAYS = 365;
+
+    @Resource
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Resource
+    private ArticleDailyStatMapper articleDailyStatMapper;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private CounterFlushLog counterFlushLog;
+
+    /**
+     * 每次汇总回看的天数，覆盖跨天以及停机期间留在 Redis 中的计数
+     */
+    @Value("${blog.visit-stat.rollup-lookback-days:2}")
+    private int rollupLookbackDays;
+
+    private final ConcurrentHashMap<LocalDate, WriteBehindCounter> dailyCounters = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<LocalDate, WriteBehindCounter> hourlyCounters = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次文章浏览
+     */
+    public void record(Long articleId) {
+        if (articleId == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        dailyCounter(now.toLocalDate()).increment(articleId);
+        hourlyCounter(now.toLocalDate()).increment((long) now.getHour());
+    }
+
+    /**
+     * 最近 N 天的每日浏览量（按天汇总表 + 尚未汇总的增量）
+     */
+    public Map<String, Object> getDailyTrend(int days) {
+        int range = Math.max(1, Math.min(days, MAX_TREND_DAYS));
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusDays(range - 1);
+
+        Map<LocalDate, Long> viewsByDate = new HashMap<>();
+        for (Map<String, Object> row : articleDailyStatMapper.selectDailyViews(startDate, endDate)) {
+            LocalDate date = toLocalDate(row.get("statDate"));
+            Object views = row.get("views");
+            if (date != null && views instanceof Number) {
+                viewsByDate.put(date, ((Number) views).longValue());
+            }
+        }
+        // 回看窗口内的计数可能还没写入汇总表
+        for (int i = 0; i <= rollupLookbackDays; i++) {
+            LocalDate date = endDate.minusDays(i);
+            if (date.isBefore(startDate)) {
+                break;
+            }
+            long pending = dailyCounter(date).getTotalPending();
+            if (pending > 0) {
+                viewsByDate.merge(date, pending, Long::sum);
+            }
+        }
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(range > 31 ? "yyyy-MM-dd" : "MM-dd");
+        List<String> dates = new ArrayList<>(range);
+        List<Long> views = new ArrayList<>(range);
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            dates.add(date.format(formatter));
+            views.add(viewsByDate.getOrDefault(date, 0L));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("dates", dates);
+        result.put("views", views);
+        return result;
+    }
+
+    /**
+     * 最近24小时的全站每小时浏览量
+     */
+    public Map<String, Object> getHourlyTrend() {
+        LocalDateTime end = LocalDateTime.now();
+        LocalDateTime start = end.minusHours(23);
+        LocalDate today = end.toLocalDate();
+        LocalDate yesterday = today.minusDays(1);
+
+        List<Long> hours = new ArrayList<>(24);
+        for (long hour = 0; hour < 24; hour++) {
+            hours.add(hour);
+        }
+        Map<Long, Long> todayViews = hourlyCounter(today).getPending(hours);
+        Map<Long, Long> yesterdayViews = hourlyCounter(yesterday).getPending(hours);
+
+        List<String> dates = new ArrayList<>(24);
+        List<Long> views = new ArrayList<>(24);
+        for (LocalDateTime time = start; !time.isAfter(end); time = time.plusHours(1)) {
+            Map<Long, Long> source = time.toLocalDate().equals(today) ? todayViews : yesterdayViews;
+            dates.add(String.format("%02d:00", time.getHour()));
+            views.add(source.getOrDefault((long) time.getHour(), 0L));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("dates", dates);
+        result.put("views", views);
+        return result;
+    }
+
+    /**
+     * 本地计数定时合并到 Redis
+     */
+    @Scheduled(fixedDelayString = "${blog.visit-stat.sync-interval:1000}")
+    public void syncToRedis() {
+        LocalDate today = LocalDate.now();
+        dailyCounters.values().forEach(WriteBehindCounter::syncToRedis);
+        hourlyCounters.values().forEach(counter -> {
+            counter.syncToRedis();
+            counter.expire(HOURLY_TTL);
+        });
+        // 过期日期的计数已全部同步到 Redis 后即可释放
+        dailyCounters.entrySet().removeIf(entry -> entry.getKey().isBefore(today.minusDays(rollupLookbackDays))
+                && !entry.getValue().hasLocalDeltas());
+        hourlyCounters.entrySet().removeIf(entry -> entry.getKey().isBefore(today.minusDays(1))
+                && !entry.getValue().hasLocalDeltas());
+    }
+
+    /**
+     * Redis 中的按天计数定时汇总到 article_daily_stat
+     */
+    @Scheduled(fixedDelayString = "${blog.visit-stat.rollup-interval:60000}")
+    public void rollup() {
+        LocalDate today = LocalDate.now();
+        for (int i = rollupLookbackDays; i >= 0; i--) {
+            LocalDate date = today.minusDays(i);
+            try {
+                dailyCounter(date).flush((flushId, deltas) -> writeDailyStats(date, flushId, deltas),
+                        Duration.ofMinutes(1));
+            } catch (Exception e) {
+                logger.error("访问统计汇总失败: date={}, error={}", date, e.getMessage(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        // 停机前把本地计数交给 Redis，由其他实例或下次启动汇总
+        dailyCounters.values().forEach(WriteBehindCounter::syncToRedis);
+        hourlyCounters.values().forEach(WriteBehindCounter::syncToRedis);
+    }
+
+    private void writeDailyStats(LocalDate date, String flushId, Map<Long, Long> deltas) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (counterFlushLog.markApplied(flushId)) {
+                WriteBehindCounter.partition(deltas, ROLLUP_BATCH_SIZE)
+                        .forEach(batch -> articleDailyStatMapper.upsertViews(date, batch));
+            }
+        });
+        logger.debug("访问统计汇总完成, 日期: {}, 文章数: {}", date, deltas.size());
+    }
+
+    private WriteBehindCounter dailyCounter(LocalDate date) {
+        return dailyCounters.computeIfAbsent(date,
+                d -> new WriteBehindCounter(redisTemplate, "visit_day:" + d.format(KEY_FORMATTER)));
+    }
+
+    private WriteBehindCounter hourlyCounter(LocalDate date) {
+        return hourlyCounters.computeIfAbsent(date,
+                d -> new WriteBehindCounter(redisTemplate, "visit_hour:" + d.format(KEY_FORMATTER)));
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate();
+        }
+        return value != null ? LocalDate.parse(value.toString().substring(0, 10)) : null;
+    }
+}
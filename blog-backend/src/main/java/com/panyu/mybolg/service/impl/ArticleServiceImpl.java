@@ -5,16 +5,25 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.panyu.mybolg.entity.*;
 import com.panyu.mybolg.enums.EmailType;
+import com.panyu.mybolg.event.ArticleChangedEvent;
+import com.panyu.mybolg.event.EntityChangedEvent;
+import com.panyu.mybolg.exception.BusinessException;
 import com.panyu.mybolg.mapper.ArticleMapper;
 import com.panyu.mybolg.service.*;
+import com.panyu.mybolg.util.ArticleQueryUtil;
+import com.panyu.mybolg.util.SeekCursor;
 import com.panyu.mybolg.utils.RustFsUtil;
 import com.panyu.mybolg.vo.TagVO;
+import com.panyu.mybolg.vo.UserBrief;
 import jakarta.annotation.Resource;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -25,15 +34,9 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
     @Resource
     private UserService userService;
 
-    @Resource
-    private CategoryService categoryService;
-
     @Resource
     private ArticleTagService articleTagService;
 
-    @Resource
-    private TagService tagService;
-
     @Resource
     private CommentService commentService;
 
@@ -46,10 +49,82 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
     @Resource
     private EmailProducer emailProducer;
 
+    @Resource
+    private ViewCountService viewCountService;
+
+    @Resource
+    private VisitStatService visitStatService;
+
+    @Resource
+    private LikeService likeService;
+
+    @Resource
+    private LookupCacheService lookupCacheService;
+
+    @Resource
+    private ArticleSearchEngine articleSearchEngine;
+
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+
+    @Resource
+    private ImageVariantService imageVariantService;
+
     @Override
     public Page<Article> listWithDetails(Integer pageNum, Integer pageSize, String title, Long categoryId, Integer status) {
         Page<Article> page = new Page<>(pageNum, pageSize);
-        LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
+        LambdaQueryWrapper<Article> wrapper = webListWrapper(title, categoryId, status);
+        wrapper.orderByDesc(Article::getIsTop, Article::getCreateTime);
+        Page<Article> result = page(page, wrapper);
+
+        // 填充详细信息
+        fillArticleDetails(result.getRecords());
+
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> listWithCursor(String cursor, Integer pageSize, String title, Long categoryId, Integer status) {
+        int size = SeekCursor.normalizePageSize(pageSize);
+        SeekCursor position = SeekCursor.decode(cursor);
+        LambdaQueryWrapper<Article> wrapper = webListWrapper(title, categoryId, status);
+
+        // 从上一页最后一条 (isTop, createTime, id) 之后继续，走索引定位而不是 OFFSET
+        if (position != null) {
+            wrapper.and(w -> w.lt(Article::getIsTop, position.getIsTop())
+                    .or(o -> o.eq(Article::getIsTop, position.getIsTop())
+                            .lt(Article::getCreateTime, position.getCreateTime()))
+                    .or(o -> o.eq(Article::getIsTop, position.getIsTop())
+                            .eq(Article::getCreateTime, position.getCreateTime())
+                            .lt(Article::getId, position.getId())));
+        }
+        // 多查一条用来判断是否还有下一页，不执行 COUNT
+        wrapper.orderByDesc(Article::getIsTop, Article::getCreateTime, Article::getId)
+               .last("LIMIT " + (size + 1));
+        List<Article> articles = list(wrapper);
+
+        boolean hasMore = articles.size() > size;
+        if (hasMore) {
+            articles = new ArrayList<>(articles.subList(0, size));
+        }
+        fillArticleDetails(articles);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("list", articles);
+        data.put("hasMore", hasMore);
+        if (hasMore) {
+            Article last = articles.get(articles.size() - 1);
+            data.put("nextCursor", new SeekCursor(last.getIsTop(), last.getCreateTime(), last.getId()).encode());
+        }
+        return data;
+    }
+
+    /**
+     * web端文章列表的筛选条件（只查询摘要字段，已发布且已审核）
+     */
+    private LambdaQueryWrapper<Article> webListWrapper(String title, Long categoryId, Integer status) {
+        // 列表只查询摘要字段，不加载正文
+        LambdaQueryWrapper<Article> wrapper = ArticleQueryUtil.summaryWrapper();
 
         if (title != null && !title.trim().isEmpty()) {
             wrapper.like(Article::getTitle, title);
@@ -65,20 +140,14 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
         }
         // web端只查看已审核的文章
         wrapper.eq(Article::getAuditStatus, 1);
-
-        wrapper.orderByDesc(Article::getIsTop, Article::getCreateTime);
-        Page<Article> result = page(page, wrapper);
-
-        // 填充详细信息
-        fillArticleDetails(result.getRecords());
-
-        return result;
+        return wrapper;
     }
 
     @Override
     public Page<Article> listWithDetailsForAdmin(Integer pageNum, Integer pageSize, String title, Long categoryId, Integer status) {
         Page<Article> page = new Page<>(pageNum, pageSize);
-        LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
+        // 列表只查询摘要字段，不加载正文
+        LambdaQueryWrapper<Article> wrapper = ArticleQueryUtil.summaryWrapper();
 
         if (title != null && !title.trim().isEmpty()) {
             wrapper.like(Article::getTitle, title);
@@ -103,7 +172,8 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
     @Override
     public Page<Article> listUserArticles(Long authorId, Integer pageNum, Integer pageSize, String title, Integer status) {
         Page<Article> page = new Page<>(pageNum, pageSize);
-        LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
+        // 列表只查询摘要字段，不加载正文
+        LambdaQueryWrapper<Article> wrapper = ArticleQueryUtil.summaryWrapper();
 
         // 只查询指定作者的文章
         wrapper.eq(Article::getAuthorId, authorId);
@@ -141,16 +211,19 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
 
     @Override
     public Page<Article> searchArticles(String keyword, Integer pageNum, Integer pageSize) {
-        Page<Article> page = new Page<>(pageNum, pageSize);
-        LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
-
-        wrapper.eq(Article::getStatus, 1)  // 只搜索已发布的文章
-               .eq(Article::getAuditStatus, 1)  // 只搜索已审核的文章
-               .and(StringUtils.isNotBlank(keyword), w -> w.like(Article::getTitle, keyword)
-                   .or()
-                   .like(Article::getContent, keyword));
-
-        Page<Article> result = page(page, wrapper);
+        Page<Article> result;
+        if (StringUtils.isNotBlank(keyword)) {
+            // 全文检索，按相关度排序
+            result = articleSearchEngine.search(keyword.trim(), pageNum, pageSize);
+        } else {
+            // 没有关键词时返回已发布且已审核的文章
+            Page<Article> page = new Page<>(pageNum, pageSize);
+            LambdaQueryWrapper<Article> wrapper = ArticleQueryUtil.summaryWrapper();
+            wrapper.eq(Article::getStatus, 1)
+                   .eq(Article::getAuditStatus, 1)
+                   .orderByDesc(Article::getCreateTime);
+            result = page(page, wrapper);
+        }
 
         // 填充详细信息
         fillArticleDetails(result.getRecords());
@@ -247,30 +320,77 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
             }
 
             // 4. 删除文章记录
-            return removeById(id);
+            boolean removed = removeById(id);
+            if (removed) {
+                likeService.removeArticleLikers(id);
+            }
+            return removed;
         } catch (Exception e) {
             throw new RuntimeException("删除文章失败: " + e.getMessage(), e);
         }
     }
 
+    @Override
+    public boolean save(Article entity) {
+        boolean saved = super.save(entity);
+        if (saved) {
+            eventPublisher.publishEvent(new ArticleChangedEvent(entity.getId(), EntityChangedEvent.Action.SAVE));
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean updateById(Article entity) {
+        boolean updated = super.updateById(entity);
+        if (updated) {
+            eventPublisher.publishEvent(new ArticleChangedEvent(entity.getId(), EntityChangedEvent.Action.UPDATE));
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        if (removed) {
+            eventPublisher.publishEvent(new ArticleChangedEvent(Long.valueOf(id.toString()), EntityChangedEvent.Action.DELETE));
+        }
+        return removed;
+    }
+
     @Override
     public boolean increaseViewCount(Long id) {
-        Article article = getById(id);
-        if (article == null) {
+        // 只统计已发布且审核通过的文章，避免任意ID撑大待落库计数和访问统计
+        if (!isPublished(id)) {
             return false;
         }
-        article.setViewCount(article.getViewCount() + 1);
-        return updateById(article);
+        // 写回式计数，由 ViewCountService 定时批量落库
+        viewCountService.increment(id);
+        visitStatService.record(id);
+        return true;
     }
 
     @Override
-    public boolean increaseLikeCount(Long id) {
-        Article article = getById(id);
-        if (article == null) {
+    public boolean increaseLikeCount(Long id, String liker) {
+        // 只能点赞已发布且审核通过的文章，避免为不存在的ID创建点赞记录
+        if (!isPublished(id)) {
+            throw new BusinessException(404, "文章不存在");
+        }
+        // 去重后写回式计数，由 LikeService 定时批量落库
+        return likeService.likeArticle(id, liker);
+    }
+
+    /**
+     * 文章是否存在且已发布、已审核通过（只查询状态列）
+     */
+    private boolean isPublished(Long id) {
+        if (id == null) {
             return false;
         }
-        article.setLikeCount(article.getLikeCount() + 1);
-        return updateById(article);
+        Article article = getOne(new LambdaQueryWrapper<Article>()
+                .select(Article::getId, Article::getStatus, Article::getAuditStatus)
+                .eq(Article::getId, id));
+        return article != null && Integer.valueOf(1).equals(article.getStatus())
+                && Integer.valueOf(1).equals(article.getAuditStatus());
     }
 
     @Override
@@ -283,6 +403,10 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
         fillCategoryName(articles);
         fillTags(articles);
         fillArticleCommentCounts(articles);
+        fillThumbnails(articles);
+        // 合并尚未落库的浏览量和点赞数
+        viewCountService.mergePending(articles);
+        likeService.mergeArticlePending(articles);
     }
 
     /**
@@ -300,18 +424,38 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
             return;
         }
 
-        // 批量查询用户
-        List<User> users = userService.listByIds(authorIds);
-        Map<Long, String> nameMap = users.stream()
-                .collect(Collectors.toMap(User::getId, User::getUsername));
-        Map<Long, String> avatarMap = users.stream()
-                .collect(Collectors.toMap(User::getId, User::getAvatar));
+        // 批量查询用户（两级缓存）
+        Map<Long, UserBrief> userMap = lookupCacheService.getUserBriefs(authorIds);
 
         // 填充作者名字和头像
         articles.forEach(article -> {
-            if (article.getAuthorId() != null) {
-                article.setAuthorName(nameMap.get(article.getAuthorId()));
-                article.setAuthorAvatar(avatarMap.get(article.getAuthorId()));
+            UserBrief author = article.getAuthorId() != null ? userMap.get(article.getAuthorId()) : null;
+            if (author != null) {
+                article.setAuthorName(author.getUsername());
+                article.setAuthorAvatar(author.getAvatar());
+            }
+        });
+    }
+
+    /**
+     * 填充封面缩略图，作者头像有缩略图时替换为缩略图（需在 fillAuthorName 之后调用）
+     */
+    private void fillThumbnails(List<Article> articles) {
+        List<String> urls = new ArrayList<>();
+        articles.forEach(article -> {
+            urls.add(article.getCover());
+            urls.add(article.getAuthorAvatar());
+        });
+        Map<String, String> thumbnails = imageVariantService.getThumbnailUrls(urls);
+        if (thumbnails.isEmpty()) {
+            return;
+        }
+        articles.forEach(article -> {
+            if (article.getCover() != null) {
+                article.setCoverThumbnail(thumbnails.get(article.getCover()));
+            }
+            if (article.getAuthorAvatar() != null) {
+                article.setAuthorAvatar(thumbnails.getOrDefault(article.getAuthorAvatar(), article.getAuthorAvatar()));
             }
         });
     }
@@ -331,10 +475,8 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
             return;
         }
 
-        // 批量查询分类
-        List<Category> categories = categoryService.listByIds(categoryIds);
-        Map<Long, String> categoryMap = categories.stream()
-                .collect(Collectors.toMap(Category::getId, Category::getName));
+        // 批量查询分类（两级缓存）
+        Map<Long, String> categoryMap = lookupCacheService.getCategoryNames(categoryIds);
 
         // 填充分类名称
         articles.forEach(article -> {
@@ -370,22 +512,15 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
                     .distinct()
                     .collect(Collectors.toList());
 
-            // 查询标签
-            List<Tag> tags = tagService.listByIds(tagIds);
-
-            // 构建标签ID -> Tag对象的映射
-            Map<Long, Tag> tagMap = tags.stream()
-                    .collect(Collectors.toMap(Tag::getId, tag -> tag));
+            // 查询标签（两级缓存），构建标签ID -> TagVO的映射
+            Map<Long, TagVO> tagMap = lookupCacheService.getTags(tagIds);
 
             // 按文章ID分组，生成TagVO列表
             Map<Long, List<TagVO>> articleTagMap = articleTags.stream()
                     .collect(Collectors.groupingBy(
                             ArticleTag::getArticleId,
                             Collectors.mapping(
-                                    at -> {
-                                        Tag tag = tagMap.get(at.getTagId());
-                                        return tag != null ? new TagVO(tag.getName(), tag.getColor()) : null;
-                                    },
+                                    at -> tagMap.get(at.getTagId()),
                                     Collectors.filtering(
                                             tagVO -> tagVO != null,
                                             Collectors.toList()
@@ -478,13 +613,8 @@ public class ArticleServiceImpl extends ServiceImpl<ArticleMapper, Article> impl
             Upload upload = uploadService.getOne(uploadWrapper);
 
             if (upload != null) {
-                // 删除文件
-                if (upload.getFilePath() != null && !upload.getFilePath().isEmpty()) {
-                    rustFsUtil.delete(upload.getFilePath());
-                }
-
-                // 删除upload表记录
-                uploadService.removeById(upload.getId());
+                // 删除文件、衍生图和upload表记录
+                uploadService.deleteFile(upload.getId());
             } else {
                 // 如果上upload表中没有记录，尝试直接从上URL提取key删除
                 if (coverUrl.contains("/blog/")) {
@@ -5,14 +5,20 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.panyu.mybolg.entity.Article;
 import com.panyu.mybolg.entity.Category;
+import com.panyu.mybolg.event.EntityChangedEvent;
 import com.panyu.mybolg.mapper.ArticleMapper;
 import com.panyu.mybolg.mapper.CategoryMapper;
+import com.panyu.mybolg.service.ArticleCountService;
 import com.panyu.mybolg.service.CategoryService;
+import com.panyu.mybolg.service.LookupCacheService;
+import com.panyu.mybolg.util.ArticleQueryUtil;
 import jakarta.annotation.Resource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,19 +32,22 @@ public class CategoryServiceImpl extends ServiceImpl<CategoryMapper, Category> i
     @Resource
     private ApplicationContext applicationContext;
     
+    @Resource
+    private LookupCacheService lookupCacheService;
+    
+    @Resource
+    private ArticleCountService articleCountService;
+    
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+    
     @Override
     public List<Category> listWithArticleCount() {
         List<Category> categories = list();
         
-        // 为每个分类统计已发布且已审核的文章数量
-        for (Category category : categories) {
-            LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
-            wrapper.eq(Article::getCategoryId, category.getId())
-                   .eq(Article::getStatus, 1)  // 只统计已发布的文章
-                   .eq(Article::getAuditStatus, 1); // 只统计已审核通过的文章
-            long count = articleMapper.selectCount(wrapper);
-            category.setCount((int) count);
-        }
+        // 一次 GROUP BY 统计全部分类已发布且已审核的文章数量（带缓存）
+        Map<Long, Integer> counts = articleCountService.getCategoryCounts();
+        categories.forEach(category -> category.setCount(counts.getOrDefault(category.getId(), 0)));
         
         return categories;
     }
@@ -47,7 +56,8 @@ public class CategoryServiceImpl extends ServiceImpl<CategoryMapper, Category> i
     public Map<String, Object> getArticlesByCategory(Long categoryId, Integer pageNum, Integer pageSize) {
         // 分页查询文章
         Page<Article> page = new Page<>(pageNum, pageSize);
-        LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
+        // 列表只查询摘要字段，不加载正文
+        LambdaQueryWrapper<Article> wrapper = ArticleQueryUtil.summaryWrapper();
         wrapper.eq(Article::getCategoryId, categoryId)
                .eq(Article::getStatus, 1)
                .eq(Article::getAuditStatus, 1)
@@ -72,4 +82,32 @@ public class CategoryServiceImpl extends ServiceImpl<CategoryMapper, Category> i
         
         return result;
     }
+
+    @Override
+    public boolean save(Category entity) {
+        boolean saved = super.save(entity);
+        if (saved) {
+            eventPublisher.publishEvent(new EntityChangedEvent(Category.class, entity.getId(), EntityChangedEvent.Action.SAVE));
+        }
+        return saved;
+    }
+    
+    @Override
+    public boolean updateById(Category entity) {
+        boolean updated = super.updateById(entity);
+        if (updated) {
+            lookupCacheService.evictCategory(entity.getId());
+        }
+        return updated;
+    }
+    
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        if (removed) {
+            lookupCacheService.evictCategory(Long.valueOf(id.toString()));
+            eventPublisher.publishEvent(new EntityChangedEvent(Category.class, Long.valueOf(id.toString()), EntityChangedEvent.Action.DELETE));
+        }
+        return removed;
+    }
 }
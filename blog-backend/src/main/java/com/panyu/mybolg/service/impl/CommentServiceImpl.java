@@ -5,13 +5,20 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.panyu.mybolg.entity.Comment;
 import com.panyu.mybolg.entity.User;
+import com.panyu.mybolg.event.EntityChangedEvent;
+import com.panyu.mybolg.exception.BusinessException;
 import com.panyu.mybolg.mapper.CommentMapper;
 import com.panyu.mybolg.service.CommentService;
+import com.panyu.mybolg.service.LikeService;
 import com.panyu.mybolg.service.UserService;
+import com.panyu.mybolg.util.SeekCursor;
 import jakarta.annotation.Resource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,6 +30,12 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
     @Resource
     private UserService userService;
     
+    @Resource
+    private LikeService likeService;
+    
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+    
     @Override
     public Map<String, Object> listAllComments(Integer pageNum, Integer pageSize, Integer status) {
         Page<Comment> page = new Page<>(pageNum, pageSize);
@@ -37,6 +50,7 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
         
         // 填充用户信息
         fillUserInfo(result.getRecords());
+        likeService.mergeCommentPending(result.getRecords());
         
         Map<String, Object> data = new HashMap<>();
         data.put("records", result.getRecords());
@@ -59,6 +73,7 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
         // 填充用户信息
         List<Comment> comments = result.getRecords();
         fillUserInfo(comments);
+        likeService.mergeCommentPending(comments);
         
         // 填充回复（子评论）
         fillReplies(comments, articleId);
@@ -70,6 +85,44 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
         return data;
     }
     
+    @Override
+    public Map<String, Object> listArticleCommentsByCursor(Long articleId, String cursor, Integer pageSize) {
+        int size = SeekCursor.normalizePageSize(pageSize);
+        SeekCursor position = SeekCursor.decode(cursor);
+        LambdaQueryWrapper<Comment> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(Comment::getArticleId, articleId)
+               .eq(Comment::getParentId, 0) // 只查询一级评论
+               .eq(Comment::getStatus, 1); // 只查询已通过的评论
+        
+        // 从上一页最后一条 (createTime, id) 之后继续，评论没有置顶，游标中的 isTop 固定为 0
+        if (position != null) {
+            wrapper.and(w -> w.lt(Comment::getCreateTime, position.getCreateTime())
+                    .or(o -> o.eq(Comment::getCreateTime, position.getCreateTime())
+                            .lt(Comment::getId, position.getId())));
+        }
+        // 多查一条用来判断是否还有下一页，不执行 COUNT
+        wrapper.orderByDesc(Comment::getCreateTime, Comment::getId)
+               .last("LIMIT " + (size + 1));
+        List<Comment> comments = list(wrapper);
+        
+        boolean hasMore = comments.size() > size;
+        if (hasMore) {
+            comments = new ArrayList<>(comments.subList(0, size));
+        }
+        fillUserInfo(comments);
+        likeService.mergeCommentPending(comments);
+        fillReplies(comments, articleId);
+        
+        Map<String, Object> data = new HashMap<>();
+        data.put("list", comments);
+        data.put("hasMore", hasMore);
+        if (hasMore) {
+            Comment last = comments.get(comments.size() - 1);
+            data.put("nextCursor", new SeekCursor(0, last.getCreateTime(), last.getId()).encode());
+        }
+        return data;
+    }
+    
     @Override
     public Comment saveComment(Comment comment) {
         // 设置默认状态为已通过
@@ -90,13 +143,35 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
     }
     
     @Override
-    public boolean likeComment(Long id) {
-        Comment comment = getById(id);
-        if (comment == null) {
+    public boolean save(Comment entity) {
+        boolean saved = super.save(entity);
+        if (saved) {
+            eventPublisher.publishEvent(new EntityChangedEvent(Comment.class, entity.getId(), EntityChangedEvent.Action.SAVE));
+        }
+        return saved;
+    }
+    
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        if (removed) {
+            eventPublisher.publishEvent(new EntityChangedEvent(Comment.class, Long.valueOf(id.toString()), EntityChangedEvent.Action.DELETE));
+            likeService.removeCommentLikers(Long.valueOf(id.toString()));
+        }
+        return removed;
+    }
+    
+    @Override
+    public boolean likeComment(Long id, Long userId) {
+        if (userId == null) {
             return false;
         }
-        comment.setLikeCount(comment.getLikeCount() + 1);
-        return updateById(comment);
+        // 避免为不存在的评论创建点赞记录
+        if (id == null || getOne(new LambdaQueryWrapper<Comment>().select(Comment::getId).eq(Comment::getId, id)) == null) {
+            throw new BusinessException(404, "评论不存在");
+        }
+        // 去重后写回式计数，由 LikeService 定时批量落库
+        return likeService.likeComment(id, "u:" + userId);
     }
     
     @Override
@@ -169,6 +244,7 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
         
         // 填充回复的用户信息
         fillUserInfo(replies);
+        likeService.mergeCommentPending(replies);
         
         // 按父评论ID分组
         Map<Long, List<Comment>> repliesMap = replies.stream()
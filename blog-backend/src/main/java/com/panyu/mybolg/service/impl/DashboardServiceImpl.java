@@ -6,13 +6,11 @@ import com.panyu.mybolg.entity.Category;
 import com.panyu.mybolg.entity.Comment;
 import com.panyu.mybolg.entity.User;
 import com.panyu.mybolg.service.*;
+import com.panyu.mybolg.util.ArticleQueryUtil;
 import jakarta.annotation.Resource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -31,40 +29,28 @@ public class DashboardServiceImpl implements DashboardService {
     @Resource
     private CategoryService categoryService;
     
+    @Resource
+    private DashboardStatsService dashboardStatsService;
+    
+    @Resource
+    private VisitStatService visitStatService;
+    
+    @Resource
+    private EmailLaneMetrics emailLaneMetrics;
+    
+    @Resource
+    private MediaGarbageCollector mediaGarbageCollector;
+    
     @Override
     public Map<String, Object> getStats() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        // 统计已审核通过的文章数
-        LambdaQueryWrapper<Article> articleWrapper = new LambdaQueryWrapper<>();
-        articleWrapper.eq(Article::getStatus, 1)  // 已发布的文章
-                     .eq(Article::getAuditStatus, 1); // 已审核通过的文章
-        long articleCount = articleService.count(articleWrapper);
-        stats.put("articleCount", articleCount);
-        
-        // 统计用户数
-        long userCount = userService.count();
-        stats.put("userCount", userCount);
-        
-        // 统计评论数
-        long commentCount = commentService.count();
-        stats.put("commentCount", commentCount);
-        
-        // 统计分类数
-        long categoryCount = categoryService.count();
-        stats.put("categoryCount", categoryCount);
-        
-        // 统计已审核通过文章的浏览量
-        List<Article> articles = articleService.list(articleWrapper);
-        int totalViews = articles.stream().mapToInt(Article::getViewCount).sum();
-        stats.put("totalViews", totalViews);
-        
-        return stats;
+        // 单条聚合查询 + 事件增量修正的快照，不再加载文章实体求和
+        return dashboardStatsService.getStats();
     }
     
     @Override
     public List<Article> getRecentArticles() {
-        LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
+        // 列表只查询摘要字段，不加载正文
+        LambdaQueryWrapper<Article> wrapper = ArticleQueryUtil.summaryWrapper();
         wrapper.eq(Article::getStatus, 1)      // 已发布的文章
                .eq(Article::getAuditStatus, 1) // 已审核通过的文章
                .orderByDesc(Article::getCreateTime).last("LIMIT 10");
@@ -89,57 +75,28 @@ public class DashboardServiceImpl implements DashboardService {
     }
     
     @Override
-    public Map<String, Object> getVisitTrend() {
-        Map<String, Object> result = new HashMap<>();
-        
-        // 获取最近7天的日期
-        List<String> dates = new ArrayList<>();
-        List<Integer> views = new ArrayList<>();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM-dd");
-        
-        for (int i = 6; i >= 0; i--) {
-            LocalDate date = LocalDate.now().minusDays(i);
-            dates.add(date.format(formatter));
-            
-            // 查询该天的已审核通过文章浏览量总和
-            LocalDateTime startOfDay = date.atStartOfDay();
-            LocalDateTime endOfDay = date.plusDays(1).atStartOfDay();
-            
-            LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
-            wrapper.ge(Article::getCreateTime, startOfDay)
-                   .lt(Article::getCreateTime, endOfDay)
-                   .eq(Article::getStatus, 1)      // 已发布的文章
-                   .eq(Article::getAuditStatus, 1); // 已审核通过的文章
-            
-            List<Article> articles = articleService.list(wrapper);
-            int totalViews = articles.stream().mapToInt(Article::getViewCount).sum();
-            views.add(totalViews);
-        }
-        
-        result.put("dates", dates);
-        result.put("views", views);
-        return result;
+    public Map<String, Object> getVisitTrend(Integer days) {
+        // 按天汇总表按日期范围一次查询
+        return visitStatService.getDailyTrend(days != null ? days : 7);
+    }
+    
+    @Override
+    public Map<String, Object> getHourlyVisitTrend() {
+        return visitStatService.getHourlyTrend();
     }
     
     @Override
     public List<Map<String, Object>> getCategoryStats() {
         List<Map<String, Object>> result = new ArrayList<>();
         
-        // 获取所有分类
-        List<Category> categories = categoryService.list();
+        // 获取所有分类及其已发布且已审核的文章数（一次聚合查询，带缓存）
+        List<Category> categories = categoryService.listWithArticleCount();
         
         for (Category category : categories) {
-            // 统计每个分类的已审核通过的文章数
-            LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
-            wrapper.eq(Article::getCategoryId, category.getId())
-                   .eq(Article::getStatus, 1)      // 已发布的文章
-                   .eq(Article::getAuditStatus, 1); // 已审核通过的文章
-            long count = articleService.count(wrapper);
-            
-            if (count > 0) {
+            if (category.getCount() > 0) {
                 Map<String, Object> stat = new HashMap<>();
                 stat.put("name", category.getName());
-                stat.put("value", count);
+                stat.put("value", category.getCount());
                 result.add(stat);
             }
         }
@@ -147,6 +104,21 @@ public class DashboardServiceImpl implements DashboardService {
         return result;
     }
     
+    @Override
+    public List<Map<String, Object>> getEmailLaneStats() {
+        return emailLaneMetrics.snapshot();
+    }
+    
+    @Override
+    public Map<String, Object> getMediaGcStatus() {
+        return mediaGarbageCollector.getStatus();
+    }
+    
+    @Override
+    public Map<String, Object> runMediaGc(boolean dryRun) {
+        return mediaGarbageCollector.start(dryRun);
+    }
+    
     /**
      * 填充评论的用户信息
      */
@@ -0,0 +1,395 @@
+package com.panyu.mybolg.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.panyu.mybolg.entity.Article;
+import com.panyu.mybolg.event.ArticleChangedEvent;
+import com.panyu.mybolg.event.EntityChangedEvent;
+import com.panyu.mybolg.mapper.ArticleMapper;
+import com.panyu.mybolg.service.ArticleSearchEngine;
+import com.panyu.mybolg.util.ArticleQueryUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.cjk.CJKAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleFragmenter;
+import org.apache.lucene.search.highlight.SimpleHTMLEncoder;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 基于内嵌 Lucene 索引的搜索实现
+ * <p>
+ * 只索引已发布且已审核的文章。索引存放在各实例本地磁盘，多实例部署时这样保持一致：
+ * <ul>
+ *     <li>文章变更事件提交后更新本地索引，并通过 Redis 发布订阅通知其他实例</li>
+ *     <li>发布订阅在断线期间会丢消息，因此定时按 update_time 扫描变更过的文章补齐（包括已逻辑删除的）</li>
+ * </ul>
+ * 写入只进 IndexWriter 缓冲，由定时任务刷新 searcher、提交（fsync），不在请求线程上提交。
+ * 提交时把最近一次补齐的起始时间写入 commit user data，重启后从该时间继续补齐；索引为空时全量重建。
+ */
+@Service
+@ConditionalOnProperty(name = "blog.search.engine", havingValue = "lucene")
+public class LuceneArticleSearchEngine implements ArticleSearchEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(LuceneArticleSearchEngine.class);
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_TITLE = "title";
+    private static final String FIELD_CONTENT = "content";
+
+    private static final int REBUILD_BATCH_SIZE = 200;
+
+    private static final int FRAGMENT_SIZE = 120;
+
+    /**
+     * 文章索引变更通知，消息格式：实例标识:动作:文章ID
+     */
+    private static final String CHANNEL = "search:article_changed";
+
+    /**
+     * commit user data 中记录的已补齐时间（毫秒时间戳）
+     */
+    private static final String COMMIT_SYNCED_AT = "syncedAt";
+
+    @Value("${blog.search.lucene.index-dir:./data/lucene-index}")
+    private String indexDir;
+
+    /**
+     * 补齐时向前多扫的分钟数，覆盖实例间的时钟偏差和补齐期间提交的长事务
+     */
+    @Value("${blog.search.lucene.reconcile-overlap-minutes:5}")
+    private long reconcileOverlapMinutes;
+
+    @Resource
+    private ArticleMapper articleMapper;
+
+    @Resource
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private Directory directory;
+
+    private Analyzer analyzer;
+
+    private IndexWriter indexWriter;
+
+    private SearcherManager searcherManager;
+
+    /**
+     * 已补齐到的时间点，此前的文章变更都已写入索引
+     */
+    private volatile LocalDateTime syncedAt;
+
+    @PostConstruct
+    public void init() throws IOException {
+        directory = FSDirectory.open(Paths.get(indexDir));
+        // CJK 二元分词，与 MySQL ngram 的行为一致
+        analyzer = new CJKAnalyzer();
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        indexWriter = new IndexWriter(directory, config);
+        searcherManager = new SearcherManager(indexWriter, null);
+
+        syncedAt = readSyncedAt();
+        if (indexWriter.getDocStats().numDocs == 0 || syncedAt == null) {
+            rebuild();
+        } else {
+            reconcile();
+        }
+        redisMessageListenerContainer.addMessageListener((message, pattern) ->
+                onRemoteChanged(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(CHANNEL));
+        logger.info("Lucene 文章索引已加载, dir={}, docs={}", indexDir, indexWriter.getDocStats().numDocs);
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException {
+        searcherManager.close();
+        indexWriter.close();
+        directory.close();
+    }
+
+    @Override
+    public Page<Article> search(String keyword, Integer pageNum, Integer pageSize) {
+        Page<Article> page = new Page<>(pageNum, pageSize);
+        IndexSearcher searcher = null;
+        try {
+            Query query = parse(keyword);
+            searcher = searcherManager.acquire();
+
+            int from = (int) ((page.getCurrent() - 1) * page.getSize());
+            TopDocs topDocs = searcher.search(query, from + (int) page.getSize());
+            page.setTotal(searcher.count(query));
+
+            ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+            if (from >= scoreDocs.length) {
+                return page;
+            }
+
+            Highlighter highlighter = new Highlighter(
+                    new SimpleHTMLFormatter("<span class=\"highlight\">", "</span>"),
+                    new SimpleHTMLEncoder(),
+                    new QueryScorer(query));
+            highlighter.setTextFragmenter(new SimpleFragmenter(FRAGMENT_SIZE));
+
+            List<Long> ids = new ArrayList<>();
+            Map<Long, String> highlights = new HashMap<>();
+            for (int i = from; i < scoreDocs.length; i++) {
+                Document doc = searcher.storedFields().document(scoreDocs[i].doc);
+                Long id = Long.parseLong(doc.get(FIELD_ID));
+                ids.add(id);
+                String fragment = highlighter.getBestFragment(analyzer, FIELD_CONTENT, doc.get(FIELD_CONTENT));
+                if (fragment != null) {
+                    highlights.put(id, fragment);
+                }
+            }
+
+            // 按相关度顺序回表查询摘要字段
+            LambdaQueryWrapper<Article> wrapper = ArticleQueryUtil.summaryWrapper();
+            wrapper.in(Article::getId, ids);
+            Map<Long, Article> articleMap = articleMapper.selectList(wrapper).stream()
+                    .collect(Collectors.toMap(Article::getId, Function.identity()));
+            List<Article> records = new ArrayList<>();
+            for (Long id : ids) {
+                Article article = articleMap.get(id);
+                if (article != null) {
+                    article.setHighlight(highlights.get(id));
+                    records.add(article);
+                }
+            }
+            page.setRecords(records);
+            return page;
+        } catch (Exception e) {
+            throw new RuntimeException("搜索失败: " + e.getMessage(), e);
+        } finally {
+            if (searcher != null) {
+                try {
+                    searcherManager.release(searcher);
+                } catch (IOException e) {
+                    logger.warn("释放 Lucene searcher 失败: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 文章变更提交后更新本地索引，并通知其他实例
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onArticleChanged(ArticleChangedEvent event) {
+        apply(event.getAction(), event.getArticleId());
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + ":" + event.getAction().name() + ":" + event.getArticleId());
+        } catch (Exception e) {
+            // 通知失败时由其他实例的定时补齐兜底
+            logger.warn("发布文章索引变更失败: articleId={}, error={}", event.getArticleId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 定时刷新 searcher，使缓冲中的变更可被搜索到
+     */
+    @Scheduled(fixedDelayString = "${blog.search.lucene.refresh-interval:1000}")
+    public void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            logger.error("刷新 Lucene searcher 失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 定时提交索引，同时记录已补齐时间
+     */
+    @Scheduled(fixedDelayString = "${blog.search.lucene.commit-interval:30000}")
+    public void commit() {
+        try {
+            if (indexWriter.hasUncommittedChanges()) {
+                indexWriter.commit();
+            }
+        } catch (IOException e) {
+            logger.error("提交 Lucene 索引失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 定时按 update_time 扫描变更过的文章补齐索引，弥补发布订阅丢失的通知
+     */
+    @Scheduled(fixedDelayString = "${blog.search.lucene.reconcile-interval:60000}",
+            initialDelayString = "${blog.search.lucene.reconcile-interval:60000}")
+    public synchronized void reconcile() {
+        LocalDateTime start = LocalDateTime.now();
+        LocalDateTime since = syncedAt.minusMinutes(reconcileOverlapMinutes);
+        long lastId = 0;
+        int total = 0;
+        try {
+            while (true) {
+                List<Article> batch = articleMapper.selectChangedSince(since, lastId, REBUILD_BATCH_SIZE);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (Article article : batch) {
+                    index(article, article.getId());
+                }
+                total += batch.size();
+                Article last = batch.get(batch.size() - 1);
+                since = last.getUpdateTime();
+                lastId = last.getId();
+            }
+            markSynced(start);
+            if (total > 0) {
+                logger.info("Lucene 文章索引补齐完成, 文章数: {}", total);
+            }
+        } catch (Exception e) {
+            logger.error("Lucene 文章索引补齐失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 分批扫描文章表重建索引
+     */
+    public synchronized void rebuild() throws IOException {
+        logger.info("开始重建 Lucene 文章索引");
+        LocalDateTime start = LocalDateTime.now();
+        indexWriter.deleteAll();
+        long lastId = 0;
+        int total = 0;
+        while (true) {
+            LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
+            wrapper.eq(Article::getStatus, 1)
+                   .eq(Article::getAuditStatus, 1)
+                   .gt(Article::getId, lastId)
+                   .orderByAsc(Article::getId)
+                   .last("LIMIT " + REBUILD_BATCH_SIZE);
+            List<Article> batch = articleMapper.selectList(wrapper);
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (Article article : batch) {
+                index(article, article.getId());
+            }
+            total += batch.size();
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        markSynced(start);
+        indexWriter.commit();
+        searcherManager.maybeRefresh();
+        logger.info("Lucene 文章索引重建完成, 文章数: {}", total);
+    }
+
+    /**
+     * 其他实例的变更通知
+     */
+    private void onRemoteChanged(String message) {
+        String[] parts = message.split(":", 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            apply(EntityChangedEvent.Action.valueOf(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            logger.warn("无法解析文章索引变更通知: {}", message);
+        }
+    }
+
+    private void apply(EntityChangedEvent.Action action, Long articleId) {
+        try {
+            if (action == EntityChangedEvent.Action.DELETE) {
+                indexWriter.deleteDocuments(new Term(FIELD_ID, String.valueOf(articleId)));
+            } else {
+                index(articleMapper.selectById(articleId), articleId);
+            }
+        } catch (Exception e) {
+            logger.error("更新文章索引失败: articleId={}, error={}", articleId, e.getMessage(), e);
+        }
+    }
+
+    private void markSynced(LocalDateTime time) {
+        syncedAt = time;
+        long millis = time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        indexWriter.setLiveCommitData(Map.of(COMMIT_SYNCED_AT, String.valueOf(millis)).entrySet());
+    }
+
+    private LocalDateTime readSyncedAt() {
+        Iterable<Map.Entry<String, String>> commitData = indexWriter.getLiveCommitData();
+        if (commitData == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> entry : commitData) {
+            if (COMMIT_SYNCED_AT.equals(entry.getKey())) {
+                return LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(entry.getValue())), ZoneId.systemDefault());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 写入或删除单篇文章的索引，只保留已发布、已审核且未删除的文章
+     */
+    private void index(Article article, Long articleId) throws IOException {
+        Term idTerm = new Term(FIELD_ID, String.valueOf(articleId));
+        if (article == null || Integer.valueOf(1).equals(article.getDeleted())
+                || !Integer.valueOf(1).equals(article.getStatus())
+                || !Integer.valueOf(1).equals(article.getAuditStatus())) {
+            indexWriter.deleteDocuments(idTerm);
+            return;
+        }
+        Document doc = new Document();
+        doc.add(new StringField(FIELD_ID, String.valueOf(article.getId()), Field.Store.YES));
+        doc.add(new TextField(FIELD_TITLE, Objects.toString(article.getTitle(), ""), Field.Store.YES));
+        doc.add(new TextField(FIELD_CONTENT, Objects.toString(article.getContent(), ""), Field.Store.YES));
+        indexWriter.updateDocument(idTerm, doc);
+    }
+
+    private Query parse(String keyword) throws Exception {
+        Map<String, Float> boosts = new HashMap<>();
+        boosts.put(FIELD_TITLE, 2.0f);
+        boosts.put(FIELD_CONTENT, 1.0f);
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(
+                new String[]{FIELD_TITLE, FIELD_CONTENT}, analyzer, boosts);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        return parser.parse(QueryParser.escape(keyword));
+    }
+}
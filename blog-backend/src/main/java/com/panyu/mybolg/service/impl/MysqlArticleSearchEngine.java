@@ -0,0 +1,71 @@
+package com.panyu.mybolg.service.impl;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.panyu.mybolg.entity.Article;
+import com.panyu.mybolg.mapper.ArticleMapper;
+import com.panyu.mybolg.service.ArticleSearchEngine;
+import jakarta.annotation.Resource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 基于 MySQL 全文索引的搜索实现（默认）
+ * <p>
+ * 依赖 article 表上 WITH PARSER ngram 的 ft_title_content 索引，中文按 ngram 分词。
+ */
+@Service
+@ConditionalOnProperty(name = "blog.search.engine", havingValue = "mysql", matchIfMissing = true)
+public class MysqlArticleSearchEngine implements ArticleSearchEngine {
+
+    /**
+     * 高亮片段中关键词前后保留的字符数
+     */
+    private static final int SNIPPET_RADIUS = 40;
+
+    @Resource
+    private ArticleMapper articleMapper;
+
+    @Override
+    public Page<Article> search(String keyword, Integer pageNum, Integer pageSize) {
+        Page<Article> page = new Page<>(pageNum, pageSize);
+        articleMapper.searchFulltext(page, keyword);
+
+        List<Article> articles = page.getRecords();
+        if (articles.isEmpty()) {
+            return page;
+        }
+
+        // 只对当前页截取正文片段
+        List<Long> ids = articles.stream().map(Article::getId).collect(Collectors.toList());
+        Map<Long, String> snippets = new HashMap<>();
+        for (Map<String, Object> row : articleMapper.selectContentSnippets(ids, keyword, SNIPPET_RADIUS)) {
+            Object snippet = row.get("snippet");
+            if (snippet != null) {
+                snippets.put((Long) row.get("id"), snippet.toString());
+            }
+        }
+        articles.forEach(article -> article.setHighlight(highlight(snippets.get(article.getId()), keyword)));
+        return page;
+    }
+
+    /**
+     * 转义片段并用高亮标记包裹关键词
+     */
+    private String highlight(String snippet, String keyword) {
+        if (snippet == null || snippet.isEmpty()) {
+            return null;
+        }
+        String escaped = HtmlUtils.htmlEscape(snippet);
+        Matcher matcher = Pattern.compile(Pattern.quote(HtmlUtils.htmlEscape(keyword)), Pattern.CASE_INSENSITIVE)
+                .matcher(escaped);
+        return matcher.replaceAll(match -> "<span class=\"highlight\">" + Matcher.quoteReplacement(match.group()) + "</span>");
+    }
+}
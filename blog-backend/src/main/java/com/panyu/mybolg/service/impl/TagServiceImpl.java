@@ -9,12 +9,16 @@ import com.panyu.mybolg.entity.Tag;
 import com.panyu.mybolg.mapper.ArticleMapper;
 import com.panyu.mybolg.mapper.ArticleTagMapper;
 import com.panyu.mybolg.mapper.TagMapper;
+import com.panyu.mybolg.service.ArticleCountService;
+import com.panyu.mybolg.service.LookupCacheService;
 import com.panyu.mybolg.service.TagService;
+import com.panyu.mybolg.util.ArticleQueryUtil;
 import jakarta.annotation.Resource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,32 +36,19 @@ public class TagServiceImpl extends ServiceImpl<TagMapper, Tag> implements TagSe
     @Resource
     private ApplicationContext applicationContext;
     
+    @Resource
+    private LookupCacheService lookupCacheService;
+    
+    @Resource
+    private ArticleCountService articleCountService;
+    
     @Override
     public List<Tag> listWithArticleCount() {
         List<Tag> tags = list();
         
-        // 为每个标签统计已发布的文章数量
-        for (Tag tag : tags) {
-            // 查询标签关联的文章ID
-            LambdaQueryWrapper<ArticleTag> tagWrapper = new LambdaQueryWrapper<>();
-            tagWrapper.eq(ArticleTag::getTagId, tag.getId());
-            List<ArticleTag> articleTags = articleTagMapper.selectList(tagWrapper);
-            
-            if (articleTags.isEmpty()) {
-                tag.setCount(0);
-            } else {
-                List<Long> articleIds = articleTags.stream()
-                        .map(ArticleTag::getArticleId)
-                        .collect(Collectors.toList());
-                
-                // 统计已发布的文章数
-                LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
-                wrapper.in(Article::getId, articleIds)
-                       .eq(Article::getStatus, 1); // 只统计已发布的文章
-                long count = articleMapper.selectCount(wrapper);
-                tag.setCount((int) count);
-            }
-        }
+        // article_tag 关联 article 一次 GROUP BY 统计全部标签已发布的文章数量（带缓存）
+        Map<Long, Integer> counts = articleCountService.getTagCounts();
+        tags.forEach(tag -> tag.setCount(counts.getOrDefault(tag.getId(), 0)));
         
         return tags;
     }
@@ -85,7 +76,8 @@ public class TagServiceImpl extends ServiceImpl<TagMapper, Tag> implements TagSe
             return result;
         }
         
-        LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
+        // 列表只查询摘要字段，不加载正文
+        LambdaQueryWrapper<Article> wrapper = ArticleQueryUtil.summaryWrapper();
         wrapper.in(Article::getId, articleIds)
                .eq(Article::getStatus, 1)
                .eq(Article::getAuditStatus, 1)
@@ -108,4 +100,22 @@ public class TagServiceImpl extends ServiceImpl<TagMapper, Tag> implements TagSe
         
         return result;
     }
+
+    @Override
+    public boolean updateById(Tag entity) {
+        boolean updated = super.updateById(entity);
+        if (updated) {
+            lookupCacheService.evictTag(entity.getId());
+        }
+        return updated;
+    }
+    
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        if (removed) {
+            lookupCacheService.evictTag(Long.valueOf(id.toString()));
+        }
+        return removed;
+    }
 }
@@ -1,26 +1,112 @@
 package com.panyu.mybolg.service.impl;
 
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.panyu.mybolg.entity.Upload;
+import com.panyu.mybolg.exception.BusinessException;
 import com.panyu.mybolg.mapper.UploadMapper;
+import com.panyu.mybolg.service.ImageVariantService;
 import com.panyu.mybolg.service.UploadService;
 import com.panyu.mybolg.utils.RustFsUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.annotation.Resource;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
 
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class UploadServiceImpl extends ServiceImpl<UploadMapper, Upload> implements UploadService {
     
+    private static final Logger logger = LoggerFactory.getLogger(UploadServiceImpl.class);
+    
+    private static final String PROGRESS_KEY_PREFIX = "upload_progress:";
+    
+    private static final Duration PROGRESS_TTL = Duration.ofHours(1);
+    
+    /**
+     * 预签名上传凭据：upload_presign:&lt;key&gt; -> 申请时的用户、文件名、类型、大小
+     */
+    private static final String PRESIGN_KEY_PREFIX = "upload_presign:";
+    
+    /**
+     * 只允许上传图片的业务目录
+     */
+    private static final Set<String> IMAGE_BIZ_DIRS = Set.of("images", "covers", "avatars");
+    
     @Resource
     private RustFsUtil rustFsUtil;
     
+    @Resource
+    private RedisTemplate<String, String> redisTemplate;
+    
+    @Resource
+    private ImageVariantService imageVariantService;
+    
+    /**
+     * 同时进行的流式上传数
+     */
+    @Value("${rustfs.upload.stream-threads:8}")
+    private int streamThreads;
+    
+    /**
+     * 流式上传允许的最大字节数，默认 1GB
+     */
+    @Value("${rustfs.upload.max-stream-size:1073741824}")
+    private long maxStreamSize;
+    
+    /**
+     * 预签名上传允许的最大字节数，默认 100MB
+     */
+    @Value("${rustfs.presign.max-size:104857600}")
+    private long presignMaxSize;
+    
+    /**
+     * 预签名地址有效期（秒）
+     */
+    @Value("${rustfs.presign.expire-seconds:600}")
+    private long presignExpireSeconds;
+    
+    private ExecutorService uploadExecutor;
+    
+    @PostConstruct
+    public void init() {
+        AtomicInteger index = new AtomicInteger();
+        // 队列很短：上传积压时直接拒绝，而不是让客户端连接一直挂着
+        uploadExecutor = new ThreadPoolExecutor(streamThreads, streamThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(streamThreads),
+                runnable -> new Thread(runnable, "stream-upload-" + index.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        uploadExecutor.shutdown();
+    }
+    
     @Override
     public Map<String, Object> listFiles(Integer pageNum, Integer pageSize, String fileType, Long userId) {
         Page<Upload> page = new Page<>(pageNum, pageSize);
@@ -36,6 +122,10 @@ public class UploadServiceImpl extends ServiceImpl<UploadMapper, Upload> impleme
         wrapper.orderByDesc(Upload::getCreateTime);
         Page<Upload> result = page(page, wrapper);
         
+        Map<String, String> thumbnails = imageVariantService.getThumbnailUrls(
+                result.getRecords().stream().map(Upload::getFileUrl).toList());
+        result.getRecords().forEach(upload -> upload.setThumbnailUrl(thumbnails.get(upload.getFileUrl())));
+        
         Map<String, Object> data = new HashMap<>();
         data.put("records", result.getRecords());
         data.put("total", result.getTotal());
@@ -50,32 +140,40 @@ public class UploadServiceImpl extends ServiceImpl<UploadMapper, Upload> impleme
         }
         
         try {
-            // 上传到 RustFS
-            String key = rustFsUtil.upload(file, bizDir);
-            String fileUrl = rustFsUtil.getFileUrl(key);
+            // 先计算内容哈希，相同内容已存在时不再上传
+            String contentHash;
+            try (InputStream in = file.getInputStream()) {
+                contentHash = DigestUtils.sha256Hex(in);
+            }
+            Upload existing = findByContentHash(contentHash);
+            if (existing != null) {
+                return toResult(saveReference(existing, file.getOriginalFilename(), file.getContentType(), userId));
+            }
+            
+            // 上传到 RustFS，key 由内容哈希决定，并发上传相同内容时写入的是同一个对象
+            String key = rustFsUtil.buildContentKey(bizDir, contentHash, file.getOriginalFilename());
+            try (InputStream in = file.getInputStream()) {
+                rustFsUtil.upload(in, file.getSize(), key, file.getContentType());
+            }
             
             // 保存记录到数据库
             Upload upload = new Upload();
             upload.setOriginalName(file.getOriginalFilename());
             upload.setFileName(key.substring(key.lastIndexOf('/') + 1));
             upload.setFilePath(key);
-            upload.setFileUrl(fileUrl);
+            upload.setFileUrl(rustFsUtil.getFileUrl(key));
             upload.setFileType(file.getContentType());
             upload.setFileSize(file.getSize());
+            upload.setContentHash(contentHash);
             upload.setUserId(userId);
             upload.setCreateTime(LocalDateTime.now());
             upload.setUpdateTime(LocalDateTime.now());
             
             save(upload);
+            // 图片异步生成缩略图等衍生图
+            imageVariantService.submit(upload);
             
-            Map<String, Object> result = new HashMap<>();
-            result.put("id", upload.getId());
-            result.put("url", fileUrl);
-            result.put("key", key);
-            result.put("fileName", upload.getFileName());
-            result.put("fileSize", upload.getFileSize());
-            
-            return result;
+            return toResult(upload);
         } catch (Exception e) {
             throw new RuntimeException("文件上传失败：" + e.getMessage(), e);
         }
@@ -95,20 +193,280 @@ public class UploadServiceImpl extends ServiceImpl<UploadMapper, Upload> impleme
         return uploadFile(file, bizDir, userId);
     }
     
+    @Override
+    public CompletableFuture<Map<String, Object>> uploadStream(InputStream in, String originalName, String contentType,
+                                                               long contentLength, String bizDir, Long userId, String progressId) {
+        if (contentLength > maxStreamSize) {
+            throw new BusinessException(413, "文件大小超过限制");
+        }
+        String fileName = originalName != null && !originalName.isBlank() ? originalName : "file";
+        String key = rustFsUtil.buildKey(bizDir, fileName);
+        updateProgress(progressId, "uploading", 0, contentLength);
+        
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                // 边上传边计算内容哈希
+                MessageDigest digest = DigestUtils.getSha256Digest();
+                long size = rustFsUtil.uploadStream(new DigestInputStream(in, digest), key, contentType, maxStreamSize,
+                        uploaded -> updateProgress(progressId, "uploading", uploaded, contentLength));
+                String contentHash = Hex.encodeHexString(digest.digest());
+                
+                Upload upload;
+                Upload existing = findByContentHash(contentHash);
+                if (existing != null) {
+                    // 内容已存在：删除刚上传的对象，只写引用记录
+                    upload = saveReference(existing, fileName, contentType, userId);
+                    try {
+                        rustFsUtil.delete(key);
+                    } catch (Exception e) {
+                        logger.warn("删除重复上传的对象失败: key={}, error={}", key, e.getMessage());
+                    }
+                } else {
+                    // 保存记录到数据库
+                    upload = new Upload();
+                    upload.setOriginalName(fileName);
+                    upload.setFileName(key.substring(key.lastIndexOf('/') + 1));
+                    upload.setFilePath(key);
+                    upload.setFileUrl(rustFsUtil.getFileUrl(key));
+                    upload.setFileType(contentType);
+                    upload.setFileSize(size);
+                    upload.setContentHash(contentHash);
+                    upload.setUserId(userId);
+                    save(upload);
+                    imageVariantService.submit(upload);
+                }
+                updateProgress(progressId, "done", size, size);
+                return toResult(upload);
+            }, uploadExecutor).whenComplete((result, e) -> {
+                if (e != null) {
+                    logger.error("流式上传失败: key={}, error={}", key, e.getMessage());
+                    updateProgress(progressId, "failed", -1, contentLength);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            updateProgress(progressId, "failed", -1, contentLength);
+            throw new BusinessException(503, "上传任务过多，请稍后重试");
+        }
+    }
+    
+    @Override
+    public Map<String, Object> getUploadProgress(String progressId) {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(PROGRESS_KEY_PREFIX + progressId);
+        if (entries.isEmpty()) {
+            throw new BusinessException(404, "上传任务不存在");
+        }
+        Map<String, Object> result = new HashMap<>();
+        entries.forEach((field, value) -> result.put(String.valueOf(field), value));
+        return result;
+    }
+    
+    /**
+     * 记录上传进度，uploaded 为 -1 时只更新状态
+     */
+    private void updateProgress(String progressId, String status, long uploaded, long total) {
+        if (progressId == null || progressId.isBlank()) {
+            return;
+        }
+        try {
+            String key = PROGRESS_KEY_PREFIX + progressId;
+            Map<String, String> fields = new HashMap<>();
+            fields.put("status", status);
+            fields.put("total", String.valueOf(total));
+            if (uploaded >= 0) {
+                fields.put("uploaded", String.valueOf(uploaded));
+            }
+            redisTemplate.opsForHash().putAll(key, fields);
+            redisTemplate.expire(key, PROGRESS_TTL);
+        } catch (Exception e) {
+            logger.warn("记录上传进度失败: progressId={}, error={}", progressId, e.getMessage());
+        }
+    }
+    
+    @Override
+    public Map<String, Object> presignUpload(String fileName, String contentType, Long fileSize, String bizDir, Long userId) {
+        if (fileName == null || fileName.isBlank()) {
+            throw new BusinessException(400, "文件名不能为空");
+        }
+        if (contentType == null || contentType.isBlank()) {
+            throw new BusinessException(400, "文件类型不能为空");
+        }
+        if (fileSize == null || fileSize <= 0) {
+            throw new BusinessException(400, "文件大小不能为空");
+        }
+        if (fileSize > presignMaxSize) {
+            throw new BusinessException(413, "文件大小超过限制");
+        }
+        String dir = bizDir != null && !bizDir.isBlank() ? bizDir : "common";
+        if (IMAGE_BIZ_DIRS.contains(dir)
+                && (!rustFsUtil.isImageFile(fileName) || !contentType.startsWith("image/"))) {
+            throw new BusinessException(400, "只支持图片文件（jpg, jpeg, png, gif, bmp, webp）");
+        }
+        
+        String key = rustFsUtil.buildKey(dir, fileName);
+        Duration expiration = Duration.ofSeconds(presignExpireSeconds);
+        PresignedPutObjectRequest presigned = rustFsUtil.presignPut(key, contentType, fileSize, expiration);
+        
+        // 凭据比签名多保留一段时间，签名到期前开始的上传仍能完成回调
+        JSONObject ticket = new JSONObject();
+        ticket.put("userId", userId);
+        ticket.put("originalName", fileName);
+        ticket.put("contentType", contentType);
+        ticket.put("fileSize", fileSize);
+        redisTemplate.opsForValue().set(PRESIGN_KEY_PREFIX + key, ticket.toJSONString(), expiration.multipliedBy(2));
+        
+        // 签名包含的请求头（Content-Type、Content-Length 等），客户端上传时需原样带上
+        Map<String, String> headers = new HashMap<>();
+        presigned.signedHeaders().forEach((name, values) -> {
+            if (!"host".equalsIgnoreCase(name)) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("key", key);
+        result.put("url", presigned.url().toString());
+        result.put("method", "PUT");
+        result.put("headers", headers);
+        result.put("expiresAt", presigned.expiration().toEpochMilli());
+        return result;
+    }
+    
+    @Override
+    public Map<String, Object> completePresignedUpload(String key, Long userId) {
+        if (key == null || key.isBlank()) {
+            throw new BusinessException(400, "文件key不能为空");
+        }
+        String json = redisTemplate.opsForValue().get(PRESIGN_KEY_PREFIX + key);
+        if (json == null) {
+            throw new BusinessException(404, "上传凭据不存在或已过期");
+        }
+        JSONObject ticket = JSON.parseObject(json);
+        Long ticketUserId = ticket.getLong("userId");
+        if (ticketUserId != null && !ticketUserId.equals(userId)) {
+            throw new BusinessException(403, "无权操作该文件");
+        }
+        
+        HeadObjectResponse head = rustFsUtil.head(key);
+        if (head == null) {
+            throw new BusinessException(400, "文件尚未上传完成");
+        }
+        long fileSize = ticket.getLongValue("fileSize");
+        String contentType = ticket.getString("contentType");
+        if (head.contentLength() == null || head.contentLength() != fileSize
+                || (head.contentType() != null && !head.contentType().equalsIgnoreCase(contentType))) {
+            // 签名已限制类型和大小，正常不会出现；不一致时删除对象，避免留下无记录的文件
+            rustFsUtil.delete(key);
+            redisTemplate.delete(PRESIGN_KEY_PREFIX + key);
+            throw new BusinessException(400, "上传的文件与申请时不一致");
+        }
+        
+        // 凭据删除成功的请求才写记录，重复回调不会产生多条记录
+        if (!Boolean.TRUE.equals(redisTemplate.delete(PRESIGN_KEY_PREFIX + key))) {
+            throw new BusinessException(409, "上传已完成");
+        }
+        String fileUrl = rustFsUtil.getFileUrl(key);
+        Upload upload = new Upload();
+        upload.setOriginalName(ticket.getString("originalName"));
+        upload.setFileName(key.substring(key.lastIndexOf('/') + 1));
+        upload.setFilePath(key);
+        upload.setFileUrl(fileUrl);
+        upload.setFileType(contentType);
+        upload.setFileSize(fileSize);
+        upload.setUserId(ticketUserId);
+        save(upload);
+        imageVariantService.submit(upload);
+        return toResult(upload);
+    }
+    
+    /**
+     * 删除文件记录
+     * <p>
+     * 按内容哈希寻址的对象可能被多条记录共享，且并发的上传随时可能复用它，这里不删除对象，
+     * 由孤儿文件回收在保护期后统一清理；没有内容哈希的对象每条记录独占，事务提交后直接删除。
+     */
     @Override
     public boolean deleteFile(Long id) {
         // 查询文件信息
         Upload upload = getById(id);
-        if (upload != null && upload.getFilePath() != null) {
-            try {
-                // 删除 RustFS 中的文件
-                rustFsUtil.delete(upload.getFilePath());
-            } catch (Exception e) {
-                // 即使 RustFS 删除失败，也继续删除数据库记录
-                System.err.println("删除 RustFS 文件失败: " + e.getMessage());
-            }
+        if (upload == null) {
+            return false;
         }
         
-        return removeById(id);
+        String filePath = upload.getFilePath();
+        boolean removed = removeById(id);
+        boolean shared = upload.getContentHash() != null && !upload.getContentHash().isEmpty();
+        if (removed && !shared && filePath != null && !filePath.isEmpty()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        deleteObject(filePath, upload.getFileUrl());
+                    }
+                });
+            } else {
+                deleteObject(filePath, upload.getFileUrl());
+            }
+        }
+        return removed;
+    }
+    
+    /**
+     * 删除存储中的对象和衍生图，删除前再确认没有其他记录引用
+     */
+    private void deleteObject(String filePath, String fileUrl) {
+        long references = count(new LambdaQueryWrapper<Upload>().eq(Upload::getFilePath, filePath));
+        if (references > 0) {
+            return;
+        }
+        try {
+            // 删除 RustFS 中的文件
+            rustFsUtil.delete(filePath);
+        } catch (Exception e) {
+            // 即使 RustFS 删除失败，数据库记录也已删除
+            logger.warn("删除 RustFS 文件失败: key={}, error={}", filePath, e.getMessage());
+        }
+        try {
+            imageVariantService.deleteVariants(fileUrl);
+        } catch (Exception e) {
+            logger.warn("删除衍生图失败: key={}, error={}", filePath, e.getMessage());
+        }
+    }
+    
+    /**
+     * 按内容哈希查找已存在的文件（最早的一条）
+     */
+    private Upload findByContentHash(String contentHash) {
+        return getOne(new LambdaQueryWrapper<Upload>()
+                .eq(Upload::getContentHash, contentHash)
+                .orderByAsc(Upload::getId)
+                .last("LIMIT 1"), false);
+    }
+    
+    /**
+     * 写入引用已有对象的记录，不再上传文件，衍生图沿用已有对象的
+     */
+    private Upload saveReference(Upload existing, String originalName, String contentType, Long userId) {
+        Upload upload = new Upload();
+        upload.setOriginalName(originalName);
+        upload.setFileName(existing.getFileName());
+        upload.setFilePath(existing.getFilePath());
+        upload.setFileUrl(existing.getFileUrl());
+        upload.setFileType(contentType != null ? contentType : existing.getFileType());
+        upload.setFileSize(existing.getFileSize());
+        upload.setContentHash(existing.getContentHash());
+        upload.setUserId(userId);
+        save(upload);
+        logger.info("复用已有文件: key={}, uploadId={}", existing.getFilePath(), upload.getId());
+        return upload;
+    }
+    
+    private Map<String, Object> toResult(Upload upload) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("id", upload.getId());
+        result.put("url", upload.getFileUrl());
+        result.put("key", upload.getFilePath());
+        result.put("fileName", upload.getFileName());
+        result.put("fileSize", upload.getFileSize());
+        return result;
     }
 }
@@ -1,21 +1,26 @@
 package com.panyu.mybolg.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.panyu.mybolg.entity.User;
+import com.panyu.mybolg.event.EntityChangedEvent;
 import com.panyu.mybolg.mapper.UserMapper;
+import com.panyu.mybolg.service.LookupCacheService;
 import com.panyu.mybolg.service.UserService;
-import com.panyu.mybolg.util.CaptchaUtil;
+import com.panyu.mybolg.util.CaptchaValidator;
 import com.panyu.mybolg.util.IpUtil;
 import com.panyu.mybolg.util.JwtUtil;
 import com.panyu.mybolg.util.PasswordUtil;
 import com.panyu.mybolg.util.FrontendCryptoUtil;
 import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -30,6 +35,15 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     @Resource
     private JwtUtil jwtUtil;
     
+    @Resource
+    private CaptchaValidator captchaValidator;
+    
+    @Resource
+    private LookupCacheService lookupCacheService;
+    
+    @Resource
+    private ApplicationEventPublisher eventPublisher;
+    
     @Override
     public Map<String, Object> login(String username, String password, HttpServletRequest request) {
         // 检查登录失败次数
@@ -113,33 +127,6 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     
     @Override
     public User register(String username, String password, String email, String emailCaptcha) {
-        // 验证邮箱验证码
-        String redisKey = CaptchaUtil.getCaptchaRedisKey(email);
-        String savedCaptcha = redisTemplate.opsForValue().get(redisKey);
-        
-        if (savedCaptcha == null) {
-            throw new RuntimeException("验证码已过期，请重新获取");
-        }
-        
-        // 检查验证码错误次数
-        String errorCountKey = "email_captcha_error_" + email;
-        Integer errorCount = 0;
-        Object countObj = redisTemplate.opsForValue().get(errorCountKey);
-        if (countObj != null) {
-            errorCount = Integer.parseInt(countObj.toString());
-        }
-        
-        if (errorCount >= 3) {
-            throw new RuntimeException("验证码输入错误次数过多，请重新获取");
-        }
-        
-        if (!savedCaptcha.equals(emailCaptcha)) {
-            // 增加错误计数
-            errorCount++;
-            redisTemplate.opsForValue().set(errorCountKey, errorCount.toString(), 1, TimeUnit.MINUTES);
-            throw new RuntimeException("验证码错误，还有" + (3 - errorCount) + "次尝试机会");
-        }
-        
         // 检查用户名是否已存在
         LambdaQueryWrapper<User> usernameWrapper = new LambdaQueryWrapper<>();
         usernameWrapper.eq(User::getUsername, username);
@@ -156,6 +143,9 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
             throw new RuntimeException("邮箱已存在");
         }
         
+        // 验证并消费邮箱验证码（放在用户名、邮箱检查之后，避免因重名等原因白白用掉验证码）
+        captchaValidator.validateEmailCaptcha(email, emailCaptcha);
+        
         // 创建新用户
         User user = new User();
         user.setUsername(username);
@@ -173,10 +163,6 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         // 保存用户
         save(user);
         
-        // 删除已使用的验证码和错误计数
-        redisTemplate.delete(redisKey);
-        redisTemplate.delete(errorCountKey);
-        
         return user;
     }
     
@@ -195,6 +181,58 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         return page(page, wrapper);
     }
     
+    @Override
+    public boolean updateBasicInfo(Long userId, User user) {
+        // 使用 UpdateWrapper 仅更新非敏感字段
+        LambdaUpdateWrapper<User> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.eq(User::getId, userId);
+        
+        // 只允许更新昵称、邮箱、头像，禁止更新role、status等敏感字段
+        if (user.getNickname() != null) {
+            updateWrapper.set(User::getNickname, user.getNickname());
+        }
+        if (user.getEmail() != null) {
+            updateWrapper.set(User::getEmail, user.getEmail());
+        }
+        if (user.getAvatar() != null) {
+            updateWrapper.set(User::getAvatar, user.getAvatar());
+        }
+        
+        boolean updated = update(updateWrapper);
+        if (updated) {
+            lookupCacheService.evictUser(userId);
+        }
+        return updated;
+    }
+    
+    @Override
+    public boolean save(User entity) {
+        boolean saved = super.save(entity);
+        if (saved) {
+            eventPublisher.publishEvent(new EntityChangedEvent(User.class, entity.getId(), EntityChangedEvent.Action.SAVE));
+        }
+        return saved;
+    }
+    
+    @Override
+    public boolean updateById(User entity) {
+        boolean updated = super.updateById(entity);
+        if (updated) {
+            lookupCacheService.evictUser(entity.getId());
+        }
+        return updated;
+    }
+    
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        if (removed) {
+            lookupCacheService.evictUser(Long.valueOf(id.toString()));
+            eventPublisher.publishEvent(new EntityChangedEvent(User.class, Long.valueOf(id.toString()), EntityChangedEvent.Action.DELETE));
+        }
+        return removed;
+    }
+    
     /**
      * 获取错误次数
      */
@@ -0,0 +1,27 @@
+package com.panyu.mybolg.util;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.panyu.mybolg.entity.Article;
+
+/**
+ * 文章查询工具类
+ */
+public class ArticleQueryUtil {
+
+    /**
+     * 正文列（LONGTEXT），只在详情接口中加载
+     */
+    private static final String CONTENT_COLUMN = "content";
+
+    /**
+     * 创建文章摘要查询条件（列表投影）
+     * <p>
+     * 列表类接口只需要标题、摘要、封面、计数等字段，查询时排除正文列，
+     * 避免每一行都把 Markdown 正文经过 JDBC 和 Jackson。
+     */
+    public static LambdaQueryWrapper<Article> summaryWrapper() {
+        LambdaQueryWrapper<Article> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(Article.class, field -> !CONTENT_COLUMN.equals(field.getColumn()));
+        return wrapper;
+    }
+}
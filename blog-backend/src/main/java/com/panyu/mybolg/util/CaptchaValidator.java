@@ -1,17 +1,47 @@
 package com.panyu.mybolg.util;
 
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
 
 import jakarta.annotation.Resource;
-import java.util.concurrent.TimeUnit;
+import java.util.Arrays;
 
 /**
  * 验证码校验工具类
+ * <p>
+ * 校验、失败计数和验证成功后删除验证码由一个 Lua 脚本原子完成，只需一次 Redis 往返，
+ * 并发提交时同一个验证码只能验证成功一次，错误次数也不会被并发覆盖。
  */
 @Component
 public class CaptchaValidator {
     
+    /**
+     * KEYS[1] 验证码键，KEYS[2] 错误计数键；
+     * ARGV[1] 用户输入，ARGV[2] 最大错误次数，ARGV[3] 错误计数有效期（秒），ARGV[4] 是否忽略大小写
+     * <p>
+     * 返回 0 验证成功（已删除验证码和错误计数），-1 验证码已过期，-2 错误次数过多，
+     * 大于 0 为验证码错误，值为累计错误次数
+     */
+    private static final DefaultRedisScript<Long> VALIDATE_SCRIPT = new DefaultRedisScript<>(
+            "local stored = redis.call('GET', KEYS[1]) " +
+            "if not stored or stored == '' then return -1 end " +
+            "local errors = tonumber(redis.call('GET', KEYS[2]) or '0') or 0 " +
+            "if errors >= tonumber(ARGV[2]) then return -2 end " +
+            "local input = ARGV[1] " +
+            "if ARGV[4] == '1' then " +
+            "  stored = string.upper(stored) " +
+            "  input = string.upper(input) " +
+            "end " +
+            "if stored == input then " +
+            "  redis.call('DEL', KEYS[1], KEYS[2]) " +
+            "  return 0 " +
+            "end " +
+            "errors = redis.call('INCR', KEYS[2]) " +
+            "redis.call('EXPIRE', KEYS[2], ARGV[3]) " +
+            "return errors",
+            Long.class);
+    
     @Resource
     private RedisTemplate<String, String> redisTemplate;
     
@@ -25,29 +55,11 @@ public class CaptchaValidator {
             throw new RuntimeException("验证码ID不能为空");
         }
         
-        String storedCode = redisTemplate.opsForValue().get(captchaId);
-        if (storedCode == null || storedCode.isEmpty()) {
+        long result = validate(captchaId, "captcha_error_" + captchaId, captcha, 30, true);
+        if (result == -1) {
             throw new RuntimeException("验证码已过期");
         }
-        
-        // 检查验证码错误次数
-        String errorCountKey = "captcha_error_" + captchaId;
-        Integer errorCount = getErrorCount(errorCountKey);
-        
-        if (errorCount >= MAX_ERROR_COUNT) {
-            throw new RuntimeException("验证码输入错误次数过多，请重新获取");
-        }
-        
-        if (!storedCode.equalsIgnoreCase(captcha)) {
-            // 增加错误计数
-            errorCount++;
-            redisTemplate.opsForValue().set(errorCountKey, errorCount.toString(), 30, TimeUnit.SECONDS);
-            throw new RuntimeException("验证码错误，还有" + (MAX_ERROR_COUNT - errorCount) + "次尝试机会");
-        }
-        
-        // 验证成功，删除验证码和错误计数
-        redisTemplate.delete(captchaId);
-        redisTemplate.delete(errorCountKey);
+        checkResult(result);
     }
     
     /**
@@ -58,46 +70,26 @@ public class CaptchaValidator {
             throw new RuntimeException("邮箱不能为空");
         }
         
-        String redisKey = CaptchaUtil.getCaptchaRedisKey(email);
-        String storedCode = redisTemplate.opsForValue().get(redisKey);
-        
-        if (storedCode == null) {
+        long result = validate(CaptchaUtil.getCaptchaRedisKey(email), "email_captcha_error_" + email, captcha, 60, false);
+        if (result == -1) {
             throw new RuntimeException("验证码已过期，请重新获取");
         }
-        
-        // 检查验证码错误次数
-        String errorCountKey = "email_captcha_error_" + email;
-        Integer errorCount = getErrorCount(errorCountKey);
-        
-        if (errorCount >= MAX_ERROR_COUNT) {
-            throw new RuntimeException("验证码输入错误次数过多，请重新获取");
-        }
-        
-        if (!storedCode.equals(captcha)) {
-            // 增加错误计数
-            errorCount++;
-            redisTemplate.opsForValue().set(errorCountKey, errorCount.toString(), 1, TimeUnit.MINUTES);
-            throw new RuntimeException("验证码错误，还有" + (MAX_ERROR_COUNT - errorCount) + "次尝试机会");
-        }
-        
-        // 验证成功，删除验证码和错误计数
-        redisTemplate.delete(redisKey);
-        redisTemplate.delete(errorCountKey);
+        checkResult(result);
     }
     
-    /**
-     * 获取错误次数
-     */
-    private Integer getErrorCount(String errorCountKey) {
-        Integer errorCount = 0;
-        Object countObj = redisTemplate.opsForValue().get(errorCountKey);
-        if (countObj != null) {
-            try {
-                errorCount = Integer.parseInt(countObj.toString());
-            } catch (NumberFormatException e) {
-                errorCount = 0;
-            }
+    private long validate(String captchaKey, String errorCountKey, String input, long errorTtlSeconds, boolean ignoreCase) {
+        Long result = redisTemplate.execute(VALIDATE_SCRIPT, Arrays.asList(captchaKey, errorCountKey),
+                input != null ? input : "", String.valueOf(MAX_ERROR_COUNT), String.valueOf(errorTtlSeconds),
+                ignoreCase ? "1" : "0");
+        return result != null ? result : -1;
+    }
+    
+    private void checkResult(long result) {
+        if (result == -2) {
+            throw new RuntimeException("验证码输入错误次数过多，请重新获取");
+        }
+        if (result > 0) {
+            throw new RuntimeException("验证码错误，还有" + Math.max(0, MAX_ERROR_COUNT - result) + "次尝试机会");
         }
-        return errorCount;
     }
 }
@@ -0,0 +1,126 @@
+package com.panyu.mybolg.util;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 预生成的图形验证码池
+ * <p>
+ * 后台线程提前绘制验证码并编码为 PNG（同时备好 Base64 data URI），请求线程只需取出一个。
+ * 每个验证码只会被取出一次；池被取空时（如被刷接口）在请求线程上现场生成，不会报错。
+ */
+@Component
+public class ImageCaptchaPool {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ImageCaptchaPool.class);
+    
+    /**
+     * 池容量
+     */
+    @Value("${blog.captcha.pool-size:500}")
+    private int poolSize;
+    
+    /**
+     * 补充间隔（毫秒）
+     */
+    @Value("${blog.captcha.refill-interval:100}")
+    private long refillInterval;
+    
+    /**
+     * 每次最多补充的数量，与补充间隔一起限制后台生成速度
+     */
+    @Value("${blog.captcha.refill-batch:50}")
+    private int refillBatch;
+    
+    private BlockingQueue<PooledCaptcha> pool;
+    
+    private ScheduledExecutorService refillExecutor;
+    
+    @PostConstruct
+    public void init() {
+        pool = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+        refillExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "captcha-pool-refill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refillExecutor.scheduleWithFixedDelay(this::refill, 0, refillInterval, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        refillExecutor.shutdownNow();
+    }
+    
+    /**
+     * 取出一个验证码
+     */
+    public PooledCaptcha take() {
+        PooledCaptcha captcha = pool.poll();
+        if (captcha != null) {
+            return captcha;
+        }
+        logger.debug("图形验证码池已空，现场生成");
+        return render();
+    }
+    
+    /**
+     * 当前池中可用的数量
+     */
+    public int available() {
+        return pool.size();
+    }
+    
+    private void refill() {
+        try {
+            for (int i = 0; i < refillBatch && pool.remainingCapacity() > 0; i++) {
+                if (!pool.offer(render())) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            // 异常不能抛出，否则定时任务会被取消
+            logger.error("补充图形验证码池失败: {}", e.getMessage(), e);
+        }
+    }
+    
+    private static PooledCaptcha render() {
+        ImageCaptchaUtil.CaptchaResult result = ImageCaptchaUtil.generateCaptcha();
+        byte[] png = ImageCaptchaUtil.toPng(result.image);
+        String dataUri = "data:image/png;base64," + Base64.getEncoder().encodeToString(png);
+        return new PooledCaptcha(result.code, png, dataUri);
+    }
+    
+    /**
+     * 预生成的验证码
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class PooledCaptcha {
+        
+        private final String code;
+        
+        /**
+         * PNG 图片
+         */
+        private final byte[] png;
+        
+        /**
+         * PNG 的 Base64 data URI，供 JSON 接口直接返回
+         */
+        private final String dataUri;
+    }
+}
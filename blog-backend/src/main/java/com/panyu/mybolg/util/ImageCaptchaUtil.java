@@ -1,15 +1,19 @@
 package com.panyu.mybolg.util;
 
+import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 图形验证码生成工具
  */
 public class ImageCaptchaUtil {
     
-    private static final Random RANDOM = new Random();
     private static final int WIDTH = 100;
     private static final int HEIGHT = 40;
     private static final int FONT_SIZE = 30;
@@ -33,10 +37,13 @@ public class ImageCaptchaUtil {
      * 生成图形验证码和图片
      */
     public static CaptchaResult generateCaptcha() {
+        // 每个线程独立的随机数，后台预生成和请求线程互不争用
+        Random random = ThreadLocalRandom.current();
+        
         // 生成验证码
         StringBuilder code = new StringBuilder();
         for (int i = 0; i < CAPTCHA_LENGTH; i++) {
-            code.append(CHARS.charAt(RANDOM.nextInt(CHARS.length())));
+            code.append(CHARS.charAt(random.nextInt(CHARS.length())));
         }
         
         // 创建图片
@@ -50,10 +57,10 @@ public class ImageCaptchaUtil {
         // 绘制干扰线
         g.setColor(new Color(200, 200, 200));
         for (int i = 0; i < 3; i++) {
-            int x1 = RANDOM.nextInt(WIDTH);
-            int y1 = RANDOM.nextInt(HEIGHT);
-            int x2 = RANDOM.nextInt(WIDTH);
-            int y2 = RANDOM.nextInt(HEIGHT);
+            int x1 = random.nextInt(WIDTH);
+            int y1 = random.nextInt(HEIGHT);
+            int x2 = random.nextInt(WIDTH);
+            int y2 = random.nextInt(HEIGHT);
             g.drawLine(x1, y1, x2, y2);
         }
         
@@ -64,10 +71,10 @@ public class ImageCaptchaUtil {
             int y = 30;
             
             // 随机颜色
-            g.setColor(new Color(RANDOM.nextInt(100), RANDOM.nextInt(100), RANDOM.nextInt(100)));
+            g.setColor(new Color(random.nextInt(100), random.nextInt(100), random.nextInt(100)));
             
             // 随机旋转
-            ((Graphics2D) g).rotate(Math.toRadians(RANDOM.nextInt(30) - 15), x, y);
+            ((Graphics2D) g).rotate(Math.toRadians(random.nextInt(30) - 15), x, y);
             g.drawString(String.valueOf(code.charAt(i)), x, y);
             ((Graphics2D) g).rotate(0);
         }
@@ -80,4 +87,17 @@ public class ImageCaptchaUtil {
         
         return new CaptchaResult(code.toString(), image);
     }
+    
+    /**
+     * 将验证码图片编码为 PNG
+     */
+    public static byte[] toPng(BufferedImage image) {
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", baos);
+            return baos.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -9,6 +9,10 @@ public class IpUtil {
 
     /**
      * 获取客户端真实IP地址
+     * <p>
+     * 不直接读取 X-Forwarded-For 等请求头（客户端可任意伪造），只使用 request.getRemoteAddr()：
+     * 部署在反向代理后时，由 server.forward-headers-strategy=native（Tomcat RemoteIpValve）
+     * 按 server.tomcat.remoteip.internal-proxies 配置的受信代理解析出真实地址（见 application.yml，所有环境生效）。
      *
      * @param request HttpServletRequest
      * @return IP地址
@@ -18,27 +22,7 @@ public class IpUtil {
             return "unknown";
         }
 
-        String ip = request.getHeader("X-Forwarded-For");
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("Proxy-Client-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("WL-Proxy-Client-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("HTTP_CLIENT_IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("HTTP_X_FORWARDED_FOR");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getRemoteAddr();
-        }
-
-        // 处理多个IP的情况（取第一个）
-        if (ip != null && ip.contains(",")) {
-            ip = ip.split(",")[0].trim();
-        }
+        String ip = request.getRemoteAddr();
 
         // IPv6本地地址转换为IPv4
         if ("0:0:0:0:0:0:0:1".equals(ip) || "::1".equals(ip)) {
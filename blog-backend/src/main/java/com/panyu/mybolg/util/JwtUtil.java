@@ -1,23 +1,30 @@
 package com.panyu.mybolg.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 /**
  * JWT 工具类：生成与解析 JWT Token
+ * <p>
+ * 签名校验通过的 token 按 SHA-256 缓存（用户ID、标识、过期时间），缓存在 token 过期时失效，
+ * 同一个 token 在每个节点上只做一次 HMAC 校验；黑名单仍然每次检查。
  */
 @Component
 public class JwtUtil {
@@ -29,15 +36,46 @@ public class JwtUtil {
     @Value("${jwt.expiration:604800000}")
     private long expiration;
 
+    // 已校验 token 缓存的最大条数
+    @Value("${jwt.verified-cache-size:50000}")
+    private long verifiedCacheSize;
+
     private SecretKey secretKey;
-    
+
+    /**
+     * JwtParser 不可变且线程安全，全局复用
+     */
+    private JwtParser jwtParser;
+
+    private Cache<String, VerifiedToken> verifiedTokens;
+
     @Resource
-    private RedisTemplate<String, String> redisTemplate;
+    private TokenBlacklist tokenBlacklist;
 
     @PostConstruct
     public void init() {
         byte[] keyBytes = secretStr.getBytes(StandardCharsets.UTF_8);
         this.secretKey = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parser().verifyWith(secretKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expiresAt - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     /**
@@ -47,6 +85,7 @@ public class JwtUtil {
         Date now = new Date();
         Date expiry = new Date(now.getTime() + expiration);
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(userId.toString())
                 .issuedAt(now)
                 .expiration(expiry)
@@ -69,25 +108,12 @@ public class JwtUtil {
         if (token.isEmpty()) {
             return null;
         }
-        
-        // 检查token是否在黑名单中
-        if (isTokenBlacklisted(token)) {
-            return null;
-        }
-        
-        try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            String subject = claims.getSubject();
-            return subject != null ? Long.parseLong(subject) : null;
-        } catch (ExpiredJwtException e) {
-            return null;
-        } catch (JwtException | NumberFormatException e) {
+
+        VerifiedToken verified = verify(token);
+        if (verified == null || tokenBlacklist.contains(verified.tokenId)) {
             return null;
         }
+        return verified.userId;
     }
 
     /**
@@ -97,18 +123,11 @@ public class JwtUtil {
         if (token == null || token.isEmpty()) {
             return false;
         }
+        VerifiedToken verified = verify(token);
         // 检查是否在黑名单中
-        if (isTokenBlacklisted(token)) {
-            return false;
-        }
-        try {
-            Jwts.parser().verifyWith(secretKey).build().parseSignedClaims(token);
-            return true;
-        } catch (JwtException e) {
-            return false;
-        }
+        return verified != null && !tokenBlacklist.contains(verified.tokenId);
     }
-    
+
     /**
      * 将token加入黑名单（用于登出）
      */
@@ -116,31 +135,64 @@ public class JwtUtil {
         if (token == null || token.isEmpty()) {
             return;
         }
+        VerifiedToken verified = verify(token);
+        if (verified == null) {
+            // token无效，无需加入黑名单
+            return;
+        }
+        long ttl = verified.expiresAt - System.currentTimeMillis();
+        // 只有未过期的token才需要加入黑名单
+        if (ttl > 0) {
+            tokenBlacklist.add(verified.tokenId, ttl);
+        }
+    }
+
+    /**
+     * 校验签名并解析 token，结果按 token 的 SHA-256 缓存到过期为止
+     *
+     * @return 签名错误、格式错误或已过期返回 null
+     */
+    private VerifiedToken verify(String token) {
+        String hash = DigestUtils.sha256Hex(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(hash);
+        if (cached != null) {
+            return cached.expiresAt > System.currentTimeMillis() ? cached : null;
+        }
         try {
-            // 获取token的过期时间
-            Claims claims = Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            Date expiration = claims.getExpiration();
-            long ttl = expiration.getTime() - System.currentTimeMillis();
-            
-            // 只有未过期的token才需要加入黑名单
-            if (ttl > 0) {
-                String blacklistKey = "token_blacklist_" + token;
-                redisTemplate.opsForValue().set(blacklistKey, "1", ttl, TimeUnit.MILLISECONDS);
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            String subject = claims.getSubject();
+            Date expiresAt = claims.getExpiration();
+            if (subject == null || expiresAt == null) {
+                return null;
             }
-        } catch (Exception e) {
-            // token无效，无需加入黑名单
+            String tokenId = claims.getId() != null && !claims.getId().isEmpty() ? claims.getId() : hash;
+            VerifiedToken verified = new VerifiedToken(Long.parseLong(subject), tokenId, expiresAt.getTime());
+            verifiedTokens.put(hash, verified);
+            return verified;
+        } catch (JwtException | NumberFormatException e) {
+            // 过期（ExpiredJwtException）、签名错误、格式错误都视为无效 token
+            return null;
         }
     }
-    
+
     /**
-     * 检查token是否在黑名单中
+     * 已校验的 token
      */
-    private boolean isTokenBlacklisted(String token) {
-        String blacklistKey = "token_blacklist_" + token;
-        return Boolean.TRUE.equals(redisTemplate.hasKey(blacklistKey));
+    private static final class VerifiedToken {
+
+        private final Long userId;
+
+        /**
+         * 黑名单标识：jti，没有时为 token 的 SHA-256
+         */
+        private final String tokenId;
+
+        private final long expiresAt;
+
+        private VerifiedToken(Long userId, String tokenId, long expiresAt) {
+            this.userId = userId;
+            this.tokenId = tokenId;
+            this.expiresAt = expiresAt;
+        }
     }
 }
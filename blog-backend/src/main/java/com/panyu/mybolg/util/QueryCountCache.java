@@ -0,0 +1,181 @@
+package com.panyu.mybolg.util;
+
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分页总数缓存
+ * <p>
+ * 以"语句ID + 规范化SQL + 参数值"的摘要为键缓存 COUNT 结果，按表维护版本号：
+ * 表有写入时版本号+1，旧版本下缓存的总数自动失效。
+ * <ul>
+ *     <li>count:version:&lt;table&gt; 当前版本号</li>
+ *     <li>count:total:&lt;table&gt; Hash，field 为查询摘要，value 为 "版本号:总数"</li>
+ * </ul>
+ */
+public class QueryCountCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryCountCache.class);
+
+    /**
+     * 读取当前版本号，以及该版本下缓存的总数（版本不一致视为未命中）
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> GET_SCRIPT = new DefaultRedisScript<>(
+            "local version = redis.call('GET', KEYS[1]) or '0' " +
+            "local cached = redis.call('HGET', KEYS[2], ARGV[1]) " +
+            "if cached then " +
+            "  local sep = string.find(cached, ':', 1, true) " +
+            "  if sep and string.sub(cached, 1, sep - 1) == version then " +
+            "    return {version, string.sub(cached, sep + 1)} " +
+            "  end " +
+            "end " +
+            "return {version}",
+            List.class);
+
+    /**
+     * 只有版本号未变化时才写入，避免把写入前统计的总数记到新版本下
+     */
+    private static final DefaultRedisScript<Long> PUT_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[1]) or '0') ~= ARGV[2] then return 0 end " +
+            "redis.call('HSET', KEYS[2], ARGV[1], ARGV[2] .. ':' .. ARGV[3]) " +
+            "redis.call('PEXPIRE', KEYS[2], ARGV[4]) " +
+            "return 1",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final Duration ttl;
+
+    /**
+     * Mapper 命名空间 -> 表名，没有实体的 Mapper 为空
+     */
+    private final ConcurrentHashMap<String, Optional<String>> tableByNamespace = new ConcurrentHashMap<>();
+
+    public QueryCountCache(RedisTemplate<String, String> redisTemplate, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = ttl;
+    }
+
+    /**
+     * 查询缓存的总数
+     *
+     * @return 命中时 total 不为空；version 用于随后的 {@link #put}
+     */
+    @SuppressWarnings("unchecked")
+    public Lookup get(String table, String digest) {
+        try {
+            List<Object> result = redisTemplate.execute(GET_SCRIPT,
+                    Arrays.asList(versionKey(table), totalKey(table)), digest);
+            if (result == null || result.isEmpty()) {
+                return null;
+            }
+            String version = String.valueOf(result.get(0));
+            Long total = result.size() > 1 ? Long.valueOf(String.valueOf(result.get(1))) : null;
+            return new Lookup(version, total);
+        } catch (Exception e) {
+            logger.warn("读取分页总数缓存失败: table={}, error={}", table, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 缓存总数，version 为统计前读取到的版本号
+     */
+    public void put(String table, String digest, String version, long total) {
+        try {
+            redisTemplate.execute(PUT_SCRIPT, Arrays.asList(versionKey(table), totalKey(table)),
+                    digest, version, String.valueOf(total), String.valueOf(ttl.toMillis()));
+        } catch (Exception e) {
+            logger.warn("写入分页总数缓存失败: table={}, error={}", table, e.getMessage());
+        }
+    }
+
+    /**
+     * 表数据变更后版本号+1
+     */
+    public void bumpVersion(String table) {
+        try {
+            redisTemplate.opsForValue().increment(versionKey(table));
+        } catch (Exception e) {
+            logger.warn("更新分页总数版本失败: table={}, error={}", table, e.getMessage());
+        }
+    }
+
+    /**
+     * 根据语句所属 Mapper 找到对应的表
+     */
+    public Optional<String> resolveTable(MappedStatement ms) {
+        String id = ms.getId();
+        String namespace = id.substring(0, id.lastIndexOf('.'));
+        return tableByNamespace.computeIfAbsent(namespace, ns -> TableInfoHelper.getTableInfos().stream()
+                .filter(info -> ns.equals(info.getCurrentNamespace()))
+                .map(TableInfo::getTableName)
+                .findFirst());
+    }
+
+    /**
+     * 规范化查询：语句ID + 压缩空白后的SQL + 按占位符顺序的参数值，取 MD5
+     */
+    public static String digest(MappedStatement ms, Object parameter, BoundSql boundSql) {
+        StringBuilder key = new StringBuilder(ms.getId())
+                .append('|')
+                .append(boundSql.getSql().replaceAll("\\s+", " ").trim());
+        Configuration configuration = ms.getConfiguration();
+        MetaObject metaObject = parameter != null ? configuration.newMetaObject(parameter) : null;
+        for (ParameterMapping mapping : boundSql.getParameterMappings()) {
+            String property = mapping.getProperty();
+            Object value;
+            if (boundSql.hasAdditionalParameter(property)) {
+                value = boundSql.getAdditionalParameter(property);
+            } else if (parameter == null) {
+                value = null;
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())) {
+                value = parameter;
+            } else {
+                value = metaObject.getValue(property);
+            }
+            key.append('|').append(value);
+        }
+        return DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String versionKey(String table) {
+        return "count:version:" + table;
+    }
+
+    private static String totalKey(String table) {
+        return "count:total:" + table;
+    }
+
+    /**
+     * 缓存查询结果
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Lookup {
+
+        private final String version;
+
+        private final Long total;
+    }
+}
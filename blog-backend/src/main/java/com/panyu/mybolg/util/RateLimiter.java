@@ -0,0 +1,103 @@
+package com.panyu.mybolg.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+
+/**
+ * 基于 Redis 令牌桶的分布式限流
+ * <p>
+ * 令牌桶状态（剩余令牌、上次更新时间）保存在 Redis Hash 中，由 Lua 脚本原子地补充和扣减，
+ * 多实例共享同一个桶。被拒绝的键在本地记录到可重试时间为止，期间的请求直接在本地拒绝，
+ * 不再访问 Redis。Redis 不可用时放行。
+ */
+@Component
+public class RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+
+    private static final String KEY_PREFIX = "rate_limit:";
+
+    /**
+     * KEYS[1] 桶；ARGV[1] 容量，ARGV[2] 每毫秒补充的令牌数，ARGV[3] 当前时间（毫秒）
+     * <p>
+     * 返回 0 表示获取成功，大于 0 为需要等待的毫秒数
+     */
+    private static final DefaultRedisScript<Long> TOKEN_BUCKET_SCRIPT = new DefaultRedisScript<>(
+            "local capacity = tonumber(ARGV[1]) " +
+            "local rate = tonumber(ARGV[2]) " +
+            "local now = tonumber(ARGV[3]) " +
+            "local data = redis.call('HMGET', KEYS[1], 'tokens', 'ts') " +
+            "local tokens = tonumber(data[1]) " +
+            "local ts = tonumber(data[2]) " +
+            "if tokens == nil or ts == nil then " +
+            "  tokens = capacity " +
+            "  ts = now " +
+            "end " +
+            "tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate) " +
+            "local wait = 0 " +
+            "if tokens >= 1 then " +
+            "  tokens = tokens - 1 " +
+            "else " +
+            "  wait = math.ceil((1 - tokens) / rate) " +
+            "end " +
+            "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now)) " +
+            "redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / rate) + 1000) " +
+            "return wait",
+            Long.class);
+
+    @Resource
+    private RedisTemplate<String, String> redisTemplate;
+
+    /**
+     * 本地拒绝缓存：键 -> 可重试的时间戳（毫秒）
+     */
+    private final Cache<String, Long> blocked = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @param key           限流键（规则 + 维度值）
+     * @param permits       周期内允许的次数（桶容量）
+     * @param periodSeconds 周期（秒）
+     * @return 0 表示放行，大于 0 为需要等待的毫秒数
+     */
+    public long tryAcquire(String key, int permits, long periodSeconds) {
+        if (permits <= 0 || periodSeconds <= 0) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        Long retryAt = blocked.getIfPresent(key);
+        if (retryAt != null) {
+            if (retryAt > now) {
+                return retryAt - now;
+            }
+            blocked.invalidate(key);
+        }
+
+        double ratePerMillis = (double) permits / (periodSeconds * 1000);
+        try {
+            Long wait = redisTemplate.execute(TOKEN_BUCKET_SCRIPT, Collections.singletonList(KEY_PREFIX + key),
+                    String.valueOf(permits), String.valueOf(ratePerMillis), String.valueOf(now));
+            if (wait != null && wait > 0) {
+                blocked.put(key, now + wait);
+                return wait;
+            }
+            return 0;
+        } catch (Exception e) {
+            logger.warn("限流检查失败，放行: key={}, error={}", key, e.getMessage());
+            return 0;
+        }
+    }
+}
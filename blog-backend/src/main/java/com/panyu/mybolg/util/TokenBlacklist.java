@@ -0,0 +1,266 @@
+package com.panyu.mybolg.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.SubscriptionListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token 黑名单（登出后的 token）
+ * <p>
+ * 以 token 的 jti（旧 token 没有 jti 时用 SHA-256）为标识，Redis 保存权威数据，
+ * 本地维护布隆过滤器：绝大多数请求的 token 不在黑名单中，布隆过滤器判定不存在即可直接放行，
+ * 只有命中布隆过滤器时才查询 Redis。新增黑名单通过 Redis 发布订阅同步到各实例；
+ * 发布订阅在断线重连期间会丢消息，因此还会定时按加入时间增量拉取，并在每次（重新）订阅成功后立即拉取一次。
+ */
+@Component
+public class TokenBlacklist {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenBlacklist.class);
+
+    private static final String KEY_PREFIX = "token_blacklist:";
+
+    /**
+     * ZSET，member 为 token 标识，score 为过期时间戳，用于启动和定时重建布隆过滤器
+     */
+    private static final String INDEX_KEY = "token_blacklist:index";
+
+    /**
+     * ZSET，member 为 token 标识，score 为加入时间戳，用于增量同步
+     */
+    private static final String ADDED_KEY = "token_blacklist:added";
+
+    private static final String CHANNEL = "token_blacklist:add";
+
+    /**
+     * 增量同步向前多拉取的毫秒数，覆盖实例间的时钟偏差
+     */
+    private static final long SYNC_OVERLAP_MILLIS = 60_000;
+
+    /**
+     * 加入时间索引的保留时长，更早的数据由定时全量重建覆盖
+     */
+    private static final long ADDED_RETENTION_MILLIS = Duration.ofDays(1).toMillis();
+
+    /**
+     * 旧版本按完整 token 存储的黑名单键
+     */
+    private static final String LEGACY_KEY_PREFIX = "token_blacklist_";
+
+    private static final long EXPECTED_INSERTIONS = 100_000;
+
+    private static final double FPP = 0.001;
+
+    @Resource
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Value("${blog.token-blacklist.rebuild-interval:3600000}")
+    private long rebuildInterval;
+
+    private volatile BloomFilter bloomFilter = new BloomFilter(EXPECTED_INSERTIONS, FPP);
+
+    /**
+     * 保护布隆过滤器的替换：重建期间的新增先记录下来，替换时补写到新过滤器
+     */
+    private final Object swapLock = new Object();
+
+    /**
+     * 重建期间新增的标识，不在重建时为 null
+     */
+    private List<String> addedDuringRebuild;
+
+    /**
+     * 已增量同步到的加入时间
+     */
+    private volatile long syncedAt;
+
+    /**
+     * 布隆过滤器命中后 Redis 的确认结果，避免误判的 token 每次都查 Redis
+     */
+    private final Cache<String, Boolean> confirmed = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .build();
+
+    @PostConstruct
+    public void init() {
+        migrateLegacyKeys();
+        rebuild();
+        redisMessageListenerContainer.addMessageListener(new AddListener(), new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * token 标识：优先使用 jti，没有时使用 token 的 SHA-256
+     */
+    public static String tokenId(String jti, String token) {
+        return jti != null && !jti.isEmpty() ? jti : DigestUtils.sha256Hex(token);
+    }
+
+    /**
+     * 加入黑名单
+     *
+     * @param ttlMillis token 剩余有效期，过期后自动移出
+     */
+    public void add(String tokenId, long ttlMillis) {
+        if (ttlMillis <= 0) {
+            return;
+        }
+        redisTemplate.opsForValue().set(KEY_PREFIX + tokenId, "1", ttlMillis, TimeUnit.MILLISECONDS);
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForZSet().add(INDEX_KEY, tokenId, now + ttlMillis);
+        redisTemplate.opsForZSet().add(ADDED_KEY, tokenId, now);
+        addLocal(tokenId);
+        redisTemplate.convertAndSend(CHANNEL, tokenId);
+    }
+
+    /**
+     * 是否在黑名单中
+     */
+    public boolean contains(String tokenId) {
+        if (!bloomFilter.mightContain(tokenId)) {
+            return false;
+        }
+        Boolean cached = confirmed.getIfPresent(tokenId);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            boolean blacklisted = Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + tokenId));
+            confirmed.put(tokenId, blacklisted);
+            return blacklisted;
+        } catch (Exception e) {
+            // 布隆过滤器已命中，Redis 不可用时按已拉黑处理
+            logger.warn("查询token黑名单失败: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * 定时按加入时间从 Redis 增量拉取新增的黑名单，弥补发布订阅丢失的消息
+     */
+    @Scheduled(fixedDelayString = "${blog.token-blacklist.sync-interval:5000}",
+            initialDelayString = "${blog.token-blacklist.sync-interval:5000}")
+    public void sync() {
+        try {
+            long now = System.currentTimeMillis();
+            Set<String> ids = redisTemplate.opsForZSet().rangeByScore(ADDED_KEY,
+                    syncedAt - SYNC_OVERLAP_MILLIS, Double.MAX_VALUE);
+            if (ids != null) {
+                ids.forEach(this::addLocal);
+            }
+            syncedAt = now;
+        } catch (Exception e) {
+            logger.warn("增量同步token黑名单失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 定时从 Redis 重建布隆过滤器，清理已过期的 token
+     */
+    @Scheduled(fixedDelayString = "${blog.token-blacklist.rebuild-interval:3600000}",
+            initialDelayString = "${blog.token-blacklist.rebuild-interval:3600000}")
+    public synchronized void rebuild() {
+        synchronized (swapLock) {
+            addedDuringRebuild = new ArrayList<>();
+        }
+        BloomFilter rebuilt = null;
+        try {
+            long now = System.currentTimeMillis();
+            redisTemplate.opsForZSet().removeRangeByScore(INDEX_KEY, 0, now);
+            redisTemplate.opsForZSet().removeRangeByScore(ADDED_KEY, 0,
+                    now - Math.max(ADDED_RETENTION_MILLIS, rebuildInterval * 2));
+            Set<String> ids = redisTemplate.opsForZSet().rangeByScore(INDEX_KEY, now, Double.MAX_VALUE);
+
+            rebuilt = new BloomFilter(Math.max(EXPECTED_INSERTIONS, ids != null ? ids.size() * 2L : 0), FPP);
+            if (ids != null) {
+                ids.forEach(rebuilt::put);
+            }
+            syncedAt = now;
+            logger.info("token黑名单布隆过滤器重建完成, 数量: {}", ids != null ? ids.size() : 0);
+        } catch (Exception e) {
+            logger.error("token黑名单布隆过滤器重建失败: {}", e.getMessage(), e);
+        } finally {
+            synchronized (swapLock) {
+                // 重建期间新增的标识补写到新过滤器后再替换，避免丢失
+                if (rebuilt != null) {
+                    addedDuringRebuild.forEach(rebuilt::put);
+                    bloomFilter = rebuilt;
+                }
+                addedDuringRebuild = null;
+            }
+        }
+    }
+
+    private void addLocal(String tokenId) {
+        synchronized (swapLock) {
+            bloomFilter.put(tokenId);
+            if (addedDuringRebuild != null) {
+                addedDuringRebuild.add(tokenId);
+            }
+        }
+        confirmed.put(tokenId, Boolean.TRUE);
+    }
+
+    /**
+     * 发布订阅监听：收到新增消息时写入本地，每次（重新）订阅成功后增量同步一次断线期间的新增
+     */
+    private class AddListener implements MessageListener, SubscriptionListener {
+
+        @Override
+        public void onMessage(Message message, byte[] pattern) {
+            addLocal(new String(message.getBody(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void onChannelSubscribed(byte[] channel, long count) {
+            sync();
+        }
+    }
+
+    /**
+     * 把旧格式（token_blacklist_&lt;完整token&gt;）的黑名单迁移为按 SHA-256 标识存储
+     */
+    private void migrateLegacyKeys() {
+        ScanOptions options = ScanOptions.scanOptions().match(LEGACY_KEY_PREFIX + "*").count(1000).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                Long ttl = redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+                if (ttl != null && ttl > 0) {
+                    String id = tokenId(null, key.substring(LEGACY_KEY_PREFIX.length()));
+                    redisTemplate.opsForValue().set(KEY_PREFIX + id, "1", ttl, TimeUnit.MILLISECONDS);
+                    long now = System.currentTimeMillis();
+                    redisTemplate.opsForZSet().add(INDEX_KEY, id, now + ttl);
+                    redisTemplate.opsForZSet().add(ADDED_KEY, id, now);
+                }
+                redisTemplate.delete(key);
+            }
+        } catch (Exception e) {
+            logger.warn("迁移旧token黑名单失败: {}", e.getMessage());
+        }
+    }
+}
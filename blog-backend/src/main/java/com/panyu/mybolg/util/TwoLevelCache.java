@@ -0,0 +1,148 @@
+package com.panyu.mybolg.util;
+
+import com.alibaba.fastjson2.JSON;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 两级缓存：本地 Caffeine（L1） + Redis（L2）
+ * <p>
+ * 按ID批量读取，L1 未命中查 L2，L2 未命中再调用 loader 批量回源，并回填两级缓存。
+ * 只适合变化很少的小对象（用户昵称头像、分类名、标签等）。
+ */
+public class TwoLevelCache<V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    /**
+     * 批量写入并设置过期时间，最后一个参数为过期秒数
+     */
+    private static final DefaultRedisScript<Long> MULTI_SET_SCRIPT = new DefaultRedisScript<>(
+            "for i = 1, #KEYS do " +
+            "  redis.call('SET', KEYS[i], ARGV[i], 'EX', ARGV[#ARGV]) " +
+            "end " +
+            "return 1",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final String name;
+
+    private final Class<V> type;
+
+    private final Duration redisTtl;
+
+    private final Cache<Long, V> localCache;
+
+    public TwoLevelCache(RedisTemplate<String, String> redisTemplate, String name, Class<V> type,
+                         long localMaxSize, Duration localTtl, Duration redisTtl) {
+        this.redisTemplate = redisTemplate;
+        this.name = name;
+        this.type = type;
+        this.redisTtl = redisTtl;
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(localTtl)
+                .build();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 批量获取
+     *
+     * @param loader 回源函数，参数为未命中的ID列表
+     */
+    public Map<Long, V> getAll(Collection<Long> ids, Function<List<Long>, Map<Long, V>> loader) {
+        Map<Long, V> result = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return result;
+        }
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        distinctIds.remove(null);
+
+        // L1
+        result.putAll(localCache.getAllPresent(distinctIds));
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinctIds) {
+            if (!result.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        // L2
+        List<Long> stillMissing = new ArrayList<>();
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(missing.stream().map(this::redisKey).toList());
+            for (int i = 0; i < missing.size(); i++) {
+                String json = values != null ? values.get(i) : null;
+                if (json != null) {
+                    V value = JSON.parseObject(json, type);
+                    result.put(missing.get(i), value);
+                    localCache.put(missing.get(i), value);
+                } else {
+                    stillMissing.add(missing.get(i));
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("读取Redis缓存失败: cache={}, error={}", name, e.getMessage());
+            stillMissing = missing;
+        }
+        if (stillMissing.isEmpty()) {
+            return result;
+        }
+
+        // 回源
+        Map<Long, V> loaded = loader.apply(stillMissing);
+        if (loaded == null || loaded.isEmpty()) {
+            return result;
+        }
+        result.putAll(loaded);
+        localCache.putAll(loaded);
+        try {
+            List<String> keys = new ArrayList<>(loaded.size());
+            List<Object> args = new ArrayList<>(loaded.size() + 1);
+            loaded.forEach((id, value) -> {
+                keys.add(redisKey(id));
+                args.add(JSON.toJSONString(value));
+            });
+            args.add(String.valueOf(redisTtl.getSeconds()));
+            redisTemplate.execute(MULTI_SET_SCRIPT, keys, args.toArray());
+        } catch (Exception e) {
+            logger.warn("写入Redis缓存失败: cache={}, error={}", name, e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 删除 L1 和 L2 中的缓存
+     */
+    public void evict(Long id) {
+        localCache.invalidate(id);
+        redisTemplate.delete(redisKey(id));
+    }
+
+    /**
+     * 只删除本地缓存（收到其他实例的失效通知时使用）
+     */
+    public void evictLocal(Long id) {
+        localCache.invalidate(id);
+    }
+
+    private String redisKey(Long id) {
+        return "cache:" + name + ":" + id;
+    }
+}
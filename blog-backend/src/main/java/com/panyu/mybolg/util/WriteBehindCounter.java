@@ -0,0 +1,316 @@
+package com.panyu.mybolg.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * 写回式计数器
+ * <p>
+ * 计数先累加在本地分段 Map 中，定时合并到 Redis Hash（多实例共享的待落库增量），
+ * 再由定时任务把 Redis 中的增量批量写入数据库。读取时可通过 {@link #getPending} 合并未落库的增量。
+ * <p>
+ * 落库时先用脚本把待落库 Hash 整体改名为本次落库的快照（counter:&lt;name&gt;:inflight:&lt;flushId&gt;），
+ * 新的增量写入新的待落库 Hash，互不影响；快照写库成功后删除。写库失败、进程退出或锁超时留下的快照，
+ * 在下一次落库时按原 flushId 重放，调用方以 flushId 在数据库中去重（见 CounterFlushLog），
+ * 同一份快照不会被重复累加。
+ */
+public class WriteBehindCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindCounter.class);
+
+    /**
+     * 按 field/delta 成对累加增量，结果小于等于0的 field 直接删除
+     */
+    private static final DefaultRedisScript<Long> APPLY_DELTA_SCRIPT = new DefaultRedisScript<>(
+            "for i = 1, #ARGV, 2 do " +
+            "  local left = redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1]) " +
+            "  if left <= 0 then redis.call('HDEL', KEYS[1], ARGV[i]) end " +
+            "end " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 待落库 Hash 存在时改名为快照，并登记到快照索引
+     */
+    private static final DefaultRedisScript<Long> BEGIN_FLUSH_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "redis.call('RENAME', KEYS[1], KEYS[2]) " +
+            "redis.call('ZADD', KEYS[3], ARGV[2], ARGV[1]) " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 快照写库成功后删除快照并移出索引
+     */
+    private static final DefaultRedisScript<Long> COMPLETE_FLUSH_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1]) " +
+            "redis.call('ZREM', KEYS[2], ARGV[1]) " +
+            "return 1",
+            Long.class);
+
+    /**
+     * 只释放自己持有的锁，锁超时后被其他实例获取时不会误删
+     */
+    private static final DefaultRedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end " +
+            "return 0",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    private final String name;
+
+    private final String pendingKey;
+
+    private final String lockKey;
+
+    /**
+     * ZSET，member 为未完成的快照 flushId，score 为创建时间
+     */
+    private final String inflightIndexKey;
+
+    /**
+     * 本地增量，ConcurrentHashMap.merge 按桶加锁，天然分段
+     */
+    private final ConcurrentHashMap<Long, Long> localDeltas = new ConcurrentHashMap<>();
+
+    public WriteBehindCounter(RedisTemplate<String, String> redisTemplate, String name) {
+        this.redisTemplate = redisTemplate;
+        this.name = name;
+        this.pendingKey = "counter:" + name + ":pending";
+        this.lockKey = "counter:" + name + ":flush_lock";
+        this.inflightIndexKey = "counter:" + name + ":inflight";
+    }
+
+    /**
+     * 计数+1
+     */
+    public void increment(Long id) {
+        if (id != null) {
+            localDeltas.merge(id, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * 将本地增量合并到 Redis（一次脚本调用完成）
+     */
+    public void syncToRedis() {
+        if (localDeltas.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> snapshot = new HashMap<>();
+        for (Long id : localDeltas.keySet()) {
+            Long delta = localDeltas.remove(id);
+            if (delta != null && delta != 0) {
+                snapshot.put(id, delta);
+            }
+        }
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        try {
+            applyDeltas(snapshot);
+        } catch (Exception e) {
+            // Redis 不可用时放回本地，下次再合并
+            snapshot.forEach((id, delta) -> localDeltas.merge(id, delta, Long::sum));
+            logger.error("计数增量同步Redis失败: key={}, error={}", pendingKey, e.getMessage());
+        }
+    }
+
+    /**
+     * 将 Redis 中的增量批量落库，多实例间通过锁保证同一时刻只有一个实例执行
+     * <p>
+     * 先重放之前未完成的快照，再把当前待落库增量转为新快照写库。flusher 抛出异常时快照保留，下次重放。
+     *
+     * @param flusher 落库逻辑，参数为 flushId 和 id -> 增量；同一 flushId 可能被重放，需在写库事务中去重
+     */
+    public void flush(BiConsumer<String, Map<Long, Long>> flusher, Duration lockTimeout) {
+        String owner = UUID.randomUUID().toString();
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(lockKey, owner, lockTimeout);
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+        try {
+            Set<String> leftovers = redisTemplate.opsForZSet().range(inflightIndexKey, 0, -1);
+            if (leftovers != null) {
+                for (String flushId : leftovers) {
+                    logger.info("重放未完成的计数快照: key={}, flushId={}", pendingKey, flushId);
+                    flushSnapshot(flushId, flusher);
+                }
+            }
+
+            String flushId = name + ":" + UUID.randomUUID();
+            Long moved = redisTemplate.execute(BEGIN_FLUSH_SCRIPT,
+                    Arrays.asList(pendingKey, inflightKey(flushId), inflightIndexKey),
+                    flushId, String.valueOf(System.currentTimeMillis()));
+            if (moved != null && moved == 1) {
+                flushSnapshot(flushId, flusher);
+            }
+        } finally {
+            redisTemplate.execute(RELEASE_LOCK_SCRIPT, Collections.singletonList(lockKey), owner);
+        }
+    }
+
+    private void flushSnapshot(String flushId, BiConsumer<String, Map<Long, Long>> flusher) {
+        Map<Long, Long> deltas = parseDeltas(redisTemplate.opsForHash().entries(inflightKey(flushId)));
+        if (!deltas.isEmpty()) {
+            flusher.accept(flushId, deltas);
+        }
+        redisTemplate.execute(COMPLETE_FLUSH_SCRIPT, Arrays.asList(inflightKey(flushId), inflightIndexKey), flushId);
+    }
+
+    /**
+     * 解析 Redis Hash 中的增量，忽略非法数据和非正数
+     */
+    static Map<Long, Long> parseDeltas(Map<Object, Object> entries) {
+        Map<Long, Long> deltas = new HashMap<>();
+        if (entries == null) {
+            return deltas;
+        }
+        entries.forEach((field, value) -> {
+            try {
+                long delta = Long.parseLong(value.toString());
+                if (delta > 0) {
+                    deltas.merge(Long.parseLong(field.toString()), delta, Long::sum);
+                }
+            } catch (NumberFormatException e) {
+                // 忽略非法数据
+            }
+        });
+        return deltas;
+    }
+
+    /**
+     * 为 Redis 中的增量 Hash 设置过期时间，用于只保存在 Redis、不落库的短期计数
+     */
+    public void expire(Duration ttl) {
+        try {
+            redisTemplate.expire(pendingKey, ttl);
+        } catch (Exception e) {
+            logger.warn("设置计数过期时间失败: key={}, error={}", pendingKey, e.getMessage());
+        }
+    }
+
+    /**
+     * 本地是否还有未同步到 Redis 的增量
+     */
+    public boolean hasLocalDeltas() {
+        return !localDeltas.isEmpty();
+    }
+
+    /**
+     * 获取尚未落库的增量（本地 + Redis）
+     */
+    public Map<Long, Long> getPending(Collection<Long> ids) {
+        Map<Long, Long> result = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return result;
+        }
+        List<Long> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<Object> fields = new ArrayList<>();
+        idList.forEach(id -> fields.add(String.valueOf(id)));
+        try {
+            // 正在落库的快照还没写入数据库，同样计入
+            for (String key : pendingKeys()) {
+                List<Object> values = redisTemplate.opsForHash().multiGet(key, fields);
+                for (int i = 0; i < idList.size(); i++) {
+                    Object value = values.get(i);
+                    if (value != null) {
+                        result.merge(idList.get(i), Long.parseLong(value.toString()), Long::sum);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("读取待落库计数失败: key={}, error={}", pendingKey, e.getMessage());
+        }
+        for (Long id : idList) {
+            Long local = localDeltas.get(id);
+            if (local != null) {
+                result.merge(id, local, Long::sum);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 获取单个ID尚未落库的增量
+     */
+    public long getPending(Long id) {
+        return getPending(Collections.singletonList(id)).getOrDefault(id, 0L);
+    }
+
+    /**
+     * 获取全部尚未落库的增量之和
+     */
+    public long getTotalPending() {
+        return getAllPending().values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * 获取全部尚未落库的增量（ID -> 增量），包括本地尚未同步的和正在落库的快照
+     */
+    public Map<Long, Long> getAllPending() {
+        Map<Long, Long> result = new HashMap<>(localDeltas);
+        try {
+            for (String key : pendingKeys()) {
+                parseDeltas(redisTemplate.opsForHash().entries(key))
+                        .forEach((id, delta) -> result.merge(id, delta, Long::sum));
+            }
+        } catch (Exception e) {
+            logger.warn("读取待落库计数失败: key={}, error={}", pendingKey, e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 将增量按批次拆分，避免单条 UPDATE 过长
+     */
+    public static List<Map<Long, Long>> partition(Map<Long, Long> deltas, int batchSize) {
+        List<Map<Long, Long>> batches = new ArrayList<>();
+        Map<Long, Long> batch = new HashMap<>();
+        for (Map.Entry<Long, Long> entry : deltas.entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() >= batchSize) {
+                batches.add(batch);
+                batch = new HashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    /**
+     * 待落库 Hash 以及未完成的快照
+     */
+    private List<String> pendingKeys() {
+        List<String> keys = new ArrayList<>();
+        keys.add(pendingKey);
+        Set<String> inflight = redisTemplate.opsForZSet().range(inflightIndexKey, 0, -1);
+        if (inflight != null) {
+            inflight.forEach(flushId -> keys.add(inflightKey(flushId)));
+        }
+        return keys;
+    }
+
+    private String inflightKey(String flushId) {
+        return "counter:" + name + ":inflight:" + flushId;
+    }
+
+    private void applyDeltas(Map<Long, Long> deltas) {
+        List<String> args = new ArrayList<>(deltas.size() * 2);
+        deltas.forEach((id, delta) -> {
+            args.add(String.valueOf(id));
+            args.add(String.valueOf(delta));
+        });
+        redisTemplate.execute(APPLY_DELTA_SCRIPT, Collections.singletonList(pendingKey), args.toArray());
+    }
+}
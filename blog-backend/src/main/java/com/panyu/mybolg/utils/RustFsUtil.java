@@ -1,21 +1,44 @@
 package com.panyu.mybolg.utils;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 /**
  * @author: YuPan
@@ -26,6 +49,11 @@ import java.util.UUID;
 @Component
 public class RustFsUtil {
 
+    /**
+     * DeleteObjects 单次最多删除的对象数
+     */
+    private static final int DELETE_BATCH_SIZE = 1000;
+
     @Value("${rustfs.endpoint}")
     private String endpoint;
 
@@ -38,8 +66,30 @@ public class RustFsUtil {
     @Value("${rustfs.bucket}")
     private String bucket;
 
+    /**
+     * 流式上传的分片大小（字节），S3 要求除最后一片外不小于 5MB
+     */
+    @Value("${rustfs.upload.part-size:8388608}")
+    private int partSize;
+
+    /**
+     * 单个上传同时进行中的分片数，决定每个上传最多占用 partSize * maxInflightParts 内存
+     */
+    @Value("${rustfs.upload.max-inflight-parts:4}")
+    private int maxInflightParts;
+
     private S3Client s3Client;
 
+    /**
+     * 异步客户端，用于分片并行上传
+     */
+    private S3AsyncClient s3AsyncClient;
+
+    /**
+     * 预签名，客户端直接上传到存储
+     */
+    private S3Presigner s3Presigner;
+
     @PostConstruct
     public void init() {
 
@@ -54,36 +104,253 @@ public class RustFsUtil {
                 .forcePathStyle(true) // 关键
                 .build();
 
+        this.s3AsyncClient = S3AsyncClient.builder()
+                .endpointOverride(URI.create(endpoint))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(
+                        StaticCredentialsProvider.create(
+                                AwsBasicCredentials.create(accessKey, secretKey)
+                        )
+                )
+                .forcePathStyle(true)
+                .build();
+
+        this.s3Presigner = S3Presigner.builder()
+                .endpointOverride(URI.create(endpoint))
+                .region(Region.US_EAST_1)
+                .credentialsProvider(
+                        StaticCredentialsProvider.create(
+                                AwsBasicCredentials.create(accessKey, secretKey)
+                        )
+                )
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .build();
+
         log.info("RustFS S3Client initialized, endpoint={}", endpoint);
     }
 
+    @PreDestroy
+    public void destroy() {
+        s3Client.close();
+        s3AsyncClient.close();
+        s3Presigner.close();
+    }
+
+    /**
+     * 生成预签名 PUT 地址
+     * <p>
+     * Content-Type 和 Content-Length 参与签名，客户端上传时必须与申请时一致，
+     * 否则存储端校验签名失败，以此限制上传的文件类型和大小。
+     */
+    public PresignedPutObjectRequest presignPut(String key, String contentType, long contentLength, Duration expiration) {
+        PutObjectRequest request = PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType)
+                .contentLength(contentLength)
+                .build();
+        return s3Presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(expiration)
+                .putObjectRequest(request)
+                .build());
+    }
+
+    /**
+     * 查询对象元数据，不存在返回 null
+     */
+    public HeadObjectResponse head(String key) {
+        try {
+            return s3Client.headObject(
+                    HeadObjectRequest.builder()
+                            .bucket(bucket)
+                            .key(key)
+                            .build()
+            );
+        } catch (NoSuchKeyException e) {
+            return null;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
     /**
      * 上传 MultipartFile
      */
     public String upload(MultipartFile file, String bizDir) {
         try {
             String key = buildKey(bizDir, file.getOriginalFilename());
+            upload(file.getInputStream(), file.getSize(), key, file.getContentType());
+            return key;
+        } catch (IOException e) {
+            throw new RuntimeException("RustFS upload failed", e);
+        }
+    }
 
-            PutObjectRequest request = PutObjectRequest.builder()
-                    .bucket(bucket)
-                    .key(key)
-                    .contentType(file.getContentType())
-                    .build();
-
-            s3Client.putObject(
-                    request,
-                    software.amazon.awssdk.core.sync.RequestBody.fromInputStream(
-                            file.getInputStream(),
-                            file.getSize()
-                    )
-            );
+    /**
+     * 上传已知长度的输入流到指定 key
+     */
+    public void upload(InputStream in, long size, String key, String contentType) {
+        PutObjectRequest request = PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType)
+                .build();
 
-            return key;
+        s3Client.putObject(request, software.amazon.awssdk.core.sync.RequestBody.fromInputStream(in, size));
+    }
+
+    /**
+     * 从输入流流式上传，不预先缓冲整个文件
+     * <p>
+     * 按 partSize 依次从流中读取分片，通过异步客户端并行上传（最多 maxInflightParts 片同时进行），
+     * 不足一个分片的小文件直接 PutObject。任一分片失败时中止分片上传并抛出异常。
+     * 调用线程负责读取输入流，会阻塞到上传完成。
+     *
+     * @param maxSize  允许的最大字节数，超过则中止
+     * @param progress 已上传字节数回调（每完成一个分片回调一次），可为 null
+     * @return 上传的总字节数
+     */
+    public long uploadStream(InputStream in, String key, String contentType, long maxSize, LongConsumer progress) {
+        try {
+            byte[] first = new byte[partSize];
+            int firstLength = readFully(in, first);
+            if (firstLength < partSize) {
+                // 小文件：一次 PutObject
+                PutObjectRequest request = PutObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .contentType(contentType)
+                        .contentLength((long) firstLength)
+                        .build();
+                s3AsyncClient.putObject(request, AsyncRequestBody.fromBytesUnsafe(trim(first, firstLength))).join();
+                if (progress != null) {
+                    progress.accept(firstLength);
+                }
+                return firstLength;
+            }
+            return uploadMultipart(in, key, contentType, maxSize, first, progress);
         } catch (IOException e) {
             throw new RuntimeException("RustFS upload failed", e);
+        } catch (CompletionException e) {
+            throw new RuntimeException("RustFS upload failed", e.getCause());
+        }
+    }
+
+    private long uploadMultipart(InputStream in, String key, String contentType, long maxSize,
+                                 byte[] first, LongConsumer progress) throws IOException {
+        String uploadId = s3AsyncClient.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType)
+                .build()).join().uploadId();
+
+        Semaphore inflight = new Semaphore(Math.max(1, maxInflightParts));
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        AtomicLong uploaded = new AtomicLong();
+        long total = 0;
+        try {
+            byte[] buffer = first;
+            int length = first.length;
+            int partNumber = 0;
+            while (length > 0) {
+                total += length;
+                if (total > maxSize) {
+                    throw new RuntimeException("文件大小超过限制");
+                }
+                // 有分片已失败则不再继续读取
+                parts.stream().filter(CompletableFuture::isCompletedExceptionally).findFirst()
+                        .ifPresent(CompletableFuture::join);
+
+                inflight.acquireUninterruptibly();
+                int number = ++partNumber;
+                long partLength = length;
+                UploadPartRequest request = UploadPartRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .uploadId(uploadId)
+                        .partNumber(number)
+                        .contentLength(partLength)
+                        .build();
+                CompletableFuture<CompletedPart> part = s3AsyncClient
+                        .uploadPart(request, AsyncRequestBody.fromBytesUnsafe(trim(buffer, length)))
+                        .thenApply(response -> CompletedPart.builder().partNumber(number).eTag(response.eTag()).build())
+                        .whenComplete((completed, e) -> {
+                            inflight.release();
+                            if (e == null && progress != null) {
+                                progress.accept(uploaded.addAndGet(partLength));
+                            }
+                        });
+                parts.add(part);
+
+                buffer = new byte[partSize];
+                length = readFully(in, buffer);
+            }
+
+            CompletableFuture.allOf(parts.toArray(new CompletableFuture[0])).join();
+            List<CompletedPart> completedParts = parts.stream()
+                    .map(CompletableFuture::join)
+                    .sorted(Comparator.comparing(CompletedPart::partNumber))
+                    .toList();
+            s3AsyncClient.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build()).join();
+            return total;
+        } catch (IOException | RuntimeException e) {
+            abortMultipartUpload(key, uploadId);
+            throw e;
+        }
+    }
+
+    private void abortMultipartUpload(String key, String uploadId) {
+        try {
+            s3AsyncClient.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build()).join();
+        } catch (Exception e) {
+            log.error("Abort multipart upload failed, key={}, uploadId={}", key, uploadId, e);
         }
     }
 
+    /**
+     * 读满缓冲区，返回实际读取的字节数（流结束时可能小于缓冲区大小）
+     */
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+        int offset = 0;
+        while (offset < buffer.length) {
+            int read = in.read(buffer, offset, buffer.length - offset);
+            if (read < 0) {
+                break;
+            }
+            offset += read;
+        }
+        return offset;
+    }
+
+    private static byte[] trim(byte[] buffer, int length) {
+        return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * 上传字节数组
+     */
+    public void upload(byte[] data, String key, String contentType) {
+        PutObjectRequest request = PutObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType)
+                .build();
+
+        s3Client.putObject(request, software.amazon.awssdk.core.sync.RequestBody.fromBytes(data));
+    }
+
     /**
      * 上传本地文件
      */
@@ -108,6 +375,18 @@ public class RustFsUtil {
         s3Client.getObject(request, targetPath);
     }
 
+    /**
+     * 以流的方式读取对象，调用方负责关闭；可通过 response() 取得对象大小等元数据
+     */
+    public ResponseInputStream<GetObjectResponse> getStream(String key) {
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .build();
+
+        return s3Client.getObject(request);
+    }
+
     /**
      * 删除文件
      */
@@ -137,6 +416,19 @@ public class RustFsUtil {
         }
     }
 
+    /**
+     * 分页列出前缀下的所有对象，每页最多 1000 个，不一次性加载
+     */
+    public void listObjects(String prefix, Consumer<S3Object> consumer) {
+        ListObjectsV2Request request = ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .prefix(prefix)
+                .maxKeys(1000)
+                .build();
+
+        s3Client.listObjectsV2Paginator(request).contents().forEach(consumer);
+    }
+
     /**
      * 获取文件访问 URL
      */
@@ -146,18 +438,85 @@ public class RustFsUtil {
 
     /**
      * 批量删除文件
+     * <p>
+     * 使用 DeleteObjects 每次最多删除 1000 个对象，按分片依次请求。
+     *
+     * @return 删除失败的 key 及原因，全部成功时为空
      */
-    public void batchDelete(java.util.List<String> keys) {
-        if (keys == null || keys.isEmpty()) {
-            return;
-        }
-        for (String key : keys) {
+    public Map<String, String> batchDelete(List<String> keys) {
+        Map<String, String> failed = new LinkedHashMap<>();
+        for (List<String> chunk : chunk(keys)) {
             try {
-                delete(key);
+                DeleteObjectsResponse response = s3Client.deleteObjects(buildDeleteObjectsRequest(chunk));
+                collectErrors(response, failed);
             } catch (Exception e) {
-                log.error("Delete file failed, key={}", key, e);
+                log.error("Batch delete failed, size={}", chunk.size(), e);
+                chunk.forEach(key -> failed.put(key, e.getMessage()));
             }
         }
+        if (!failed.isEmpty()) {
+            log.warn("Batch delete finished with {} failures of {}", failed.size(), keys.size());
+        }
+        return failed;
+    }
+
+    /**
+     * 异步批量删除文件，各分片并行请求，不阻塞调用线程
+     *
+     * @return 删除失败的 key 及原因，全部成功时为空
+     */
+    public CompletableFuture<Map<String, String>> batchDeleteAsync(List<String> keys) {
+        Map<String, String> failed = new ConcurrentHashMap<>();
+        CompletableFuture<?>[] futures = chunk(keys).stream()
+                .map(chunk -> s3AsyncClient.deleteObjects(buildDeleteObjectsRequest(chunk))
+                        .handle((response, e) -> {
+                            if (e != null) {
+                                log.error("Batch delete failed, size={}", chunk.size(), e);
+                                chunk.forEach(key -> failed.put(key, String.valueOf(e.getMessage())));
+                            } else {
+                                collectErrors(response, failed);
+                            }
+                            return null;
+                        }))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(futures).thenApply(v -> failed);
+    }
+
+    /**
+     * 去除空 key 后按 DeleteObjects 单次上限 1000 分片
+     */
+    private List<List<String>> chunk(List<String> keys) {
+        List<List<String>> chunks = new ArrayList<>();
+        if (keys == null || keys.isEmpty()) {
+            return chunks;
+        }
+        List<String> distinct = keys.stream()
+                .filter(key -> key != null && !key.isEmpty())
+                .distinct()
+                .toList();
+        for (int i = 0; i < distinct.size(); i += DELETE_BATCH_SIZE) {
+            chunks.add(distinct.subList(i, Math.min(i + DELETE_BATCH_SIZE, distinct.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * quiet 模式：响应只包含删除失败的对象
+     */
+    private DeleteObjectsRequest buildDeleteObjectsRequest(List<String> keys) {
+        List<ObjectIdentifier> objects = keys.stream()
+                .map(key -> ObjectIdentifier.builder().key(key).build())
+                .toList();
+        return DeleteObjectsRequest.builder()
+                .bucket(bucket)
+                .delete(Delete.builder().objects(objects).quiet(true).build())
+                .build();
+    }
+
+    private void collectErrors(DeleteObjectsResponse response, Map<String, String> failed) {
+        for (S3Error error : response.errors()) {
+            failed.put(error.key(), error.code() + ": " + error.message());
+        }
     }
 
     /**
@@ -180,10 +539,22 @@ public class RustFsUtil {
                 || ext.equals("gif") || ext.equals("bmp") || ext.equals("webp");
     }
 
+    /**
+     * 按内容 SHA-256 生成对象 key，相同内容得到相同 key，例如 images/ab/abcdef....png
+     */
+    public String buildContentKey(String bizDir, String contentHash, String originalFilename) {
+        String ext = getFileExtension(originalFilename).toLowerCase();
+        return bizDir + "/"
+                + contentHash.substring(0, 2)
+                + "/"
+                + contentHash
+                + (ext.isEmpty() ? "" : "." + ext);
+    }
+
     /**
      * 生成对象 key（防覆盖）
      */
-    private String buildKey(String bizDir, String originalFilename) {
+    public String buildKey(String bizDir, String originalFilename) {
         return bizDir + "/"
                 + LocalDate.now()
                 + "/"
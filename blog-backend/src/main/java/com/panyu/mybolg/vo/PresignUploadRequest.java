@@ -0,0 +1,30 @@
+package com.panyu.mybolg.vo;
+
+import lombok.Data;
+
+/**
+ * 申请预签名上传地址请求VO
+ */
+@Data
+public class PresignUploadRequest {
+    
+    /**
+     * 原始文件名
+     */
+    private String fileName;
+    
+    /**
+     * 文件类型（MIME），上传时必须使用相同的 Content-Type
+     */
+    private String contentType;
+    
+    /**
+     * 文件大小（字节），上传时必须使用相同的 Content-Length
+     */
+    private Long fileSize;
+    
+    /**
+     * 业务目录：common、images、covers、avatars 等
+     */
+    private String bizDir;
+}
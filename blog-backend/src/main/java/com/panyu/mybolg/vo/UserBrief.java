@@ -0,0 +1,14 @@
+package com.panyu.mybolg.vo;
+
+import lombok.Data;
+
+/**
+ * 用户简要信息（用于列表展示的作者/评论者信息缓存）
+ */
+@Data
+public class UserBrief {
+    private Long id;
+    private String username;
+    private String nickname;
+    private String avatar;
+}
@@ -84,13 +84,15 @@ CREATE TABLE `article`
     `update_time`   DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     `publish_time`  DATETIME NULL DEFAULT NULL COMMENT '发布时间',
     PRIMARY KEY (`id`),
-    KEY             `idx_category_id` (`category_id`),
+    KEY             `idx_category_status` (`category_id`, `status`, `audit_status`, `deleted`),
     KEY             `idx_author_id` (`author_id`),
     KEY             `idx_status` (`status`),
     KEY             `idx_audit_status` (`audit_status`),
     KEY             `idx_create_time` (`create_time`),
     KEY             `idx_publish_time` (`publish_time`),
-    FULLTEXT KEY `ft_title_content` (`title`, `content`)
+    KEY             `idx_update_time` (`update_time`, `id`),
+    KEY             `idx_web_list` (`status`, `audit_status`, `deleted`, `is_top`, `create_time`),
+    FULLTEXT KEY `ft_title_content` (`title`, `content`) WITH PARSER ngram
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='文章表';
 
 -- 文章标签关联表
@@ -125,6 +127,7 @@ CREATE TABLE `comment`
     KEY           `idx_article_id` (`article_id`),
     KEY           `idx_user_id` (`user_id`),
     KEY           `idx_parent_id` (`parent_id`),
+    KEY           `idx_article_list` (`article_id`, `parent_id`, `status`, `deleted`, `create_time`),
     KEY           `idx_create_time` (`create_time`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='评论表';
 
@@ -139,6 +142,7 @@ CREATE TABLE `upload`
     `file_url`      VARCHAR(500) NOT NULL DEFAULT '' COMMENT '文件URL',
     `file_type`     VARCHAR(50)  NOT NULL DEFAULT '' COMMENT '文件类型',
     `file_size`     BIGINT       NOT NULL DEFAULT 0 COMMENT '文件大小（字节）',
+    `content_hash`  CHAR(64)     NOT NULL DEFAULT '' COMMENT '文件内容SHA-256，相同内容共用存储对象',
     `user_id`       BIGINT       NOT NULL DEFAULT 0 COMMENT '上传用户ID',
     `deleted`       TINYINT      NOT NULL DEFAULT 0 COMMENT '是否删除：0-未删除 1-已删除',
     `create_time`   DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
@@ -146,6 +150,8 @@ CREATE TABLE `upload`
     PRIMARY KEY (`id`),
     KEY             `idx_user_id` (`user_id`),
     KEY             `idx_file_type` (`file_type`),
+    KEY             `idx_content_hash` (`content_hash`),
+    KEY             `idx_file_path` (`file_path`(191)),
     KEY             `idx_create_time` (`create_time`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='文件上传表';
 
@@ -164,6 +170,69 @@ CREATE TABLE `settings`
     UNIQUE KEY `uk_key` (`key`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='系统设置表';
 
+-- 文章每日访问统计表（由 Redis 中的按天计数定时汇总写入）
+DROP TABLE IF EXISTS `article_daily_stat`;
+CREATE TABLE `article_daily_stat`
+(
+    `stat_date`   DATE     NOT NULL COMMENT '统计日期',
+    `article_id`  BIGINT   NOT NULL DEFAULT 0 COMMENT '文章ID',
+    `view_count`  INT      NOT NULL DEFAULT 0 COMMENT '当日浏览量',
+    `create_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `update_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`stat_date`, `article_id`),
+    KEY           `idx_article_date` (`article_id`, `stat_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='文章每日访问统计表';
+
+-- 计数落库记录（写回式计数快照按 flush_id 去重，防止重放时重复累加）
+DROP TABLE IF EXISTS `counter_flush_log`;
+CREATE TABLE `counter_flush_log`
+(
+    `flush_id`    VARCHAR(100) NOT NULL COMMENT '快照ID',
+    `create_time` DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '落库时间',
+    PRIMARY KEY (`flush_id`),
+    KEY           `idx_create_time` (`create_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='计数落库记录表';
+
+-- 图片衍生图表（缩略图、中图、大图，上传后异步生成）
+DROP TABLE IF EXISTS `upload_variant`;
+CREATE TABLE `upload_variant`
+(
+    `id`          BIGINT       NOT NULL AUTO_INCREMENT COMMENT 'ID',
+    `upload_id`   BIGINT       NOT NULL DEFAULT 0 COMMENT '原图上传记录ID',
+    `source_url`  VARCHAR(500) NOT NULL DEFAULT '' COMMENT '原图URL',
+    `variant`     VARCHAR(20)  NOT NULL DEFAULT '' COMMENT '尺寸：thumbnail、medium、large',
+    `format`      VARCHAR(10)  NOT NULL DEFAULT '' COMMENT '格式：webp、jpg、png',
+    `file_path`   VARCHAR(500) NOT NULL DEFAULT '' COMMENT '文件路径',
+    `file_url`    VARCHAR(500) NOT NULL DEFAULT '' COMMENT '文件URL',
+    `width`       INT          NOT NULL DEFAULT 0 COMMENT '宽度',
+    `height`      INT          NOT NULL DEFAULT 0 COMMENT '高度',
+    `file_size`   BIGINT       NOT NULL DEFAULT 0 COMMENT '文件大小（字节）',
+    `create_time` DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `update_time` DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    KEY           `idx_upload_id` (`upload_id`),
+    KEY           `idx_source_url_variant` (`source_url`(191), `variant`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='图片衍生图表';
+
+-- 邮件发件箱表（与业务数据同一事务写入，后台投递到 RocketMQ）
+DROP TABLE IF EXISTS `email_outbox`;
+CREATE TABLE `email_outbox`
+(
+    `id`              BIGINT       NOT NULL AUTO_INCREMENT COMMENT 'ID',
+    `to_email`        VARCHAR(100) NOT NULL DEFAULT '' COMMENT '收件人邮箱',
+    `subject`         VARCHAR(200) NOT NULL DEFAULT '' COMMENT '邮件主题',
+    `content`         TEXT COMMENT '邮件内容',
+    `type`            VARCHAR(32)  NOT NULL DEFAULT '' COMMENT '邮件类型',
+    `status`          TINYINT      NOT NULL DEFAULT 0 COMMENT '状态：0-待投递，1-已投递，2-投递失败',
+    `retry_count`     INT          NOT NULL DEFAULT 0 COMMENT '重试次数',
+    `next_retry_time` DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '下次投递时间',
+    `last_error`      VARCHAR(500) NOT NULL DEFAULT '' COMMENT '最近一次失败原因',
+    `create_time`     DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `update_time`     DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    KEY               `idx_status_next_retry` (`status`, `next_retry_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='邮件发件箱表';
+
 -- 插入默认管理员账号（密码：admin123，使用MD5加密后的值）
 -- 注意：密码需要在应用层使用 MD5(密码+用户ID) 加密
 INSERT INTO `user` (`username`, `password`, `nickname`, `email`, `role`, `status`)
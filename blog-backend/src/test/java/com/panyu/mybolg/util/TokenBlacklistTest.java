@@ -0,0 +1,81 @@
+package com.panyu.mybolg.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TokenBlacklistTest {
+
+    private static final String INDEX_KEY = "token_blacklist:index";
+
+    private static final String ADDED_KEY = "token_blacklist:added";
+
+    private RedisTemplate<String, String> redisTemplate;
+
+    private ZSetOperations<String, String> zSetOps;
+
+    private TokenBlacklist blacklist;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        zSetOps = mock(ZSetOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+        when(redisTemplate.opsForValue()).thenReturn(mock(ValueOperations.class));
+        when(redisTemplate.hasKey(anyString())).thenReturn(false);
+
+        blacklist = new TokenBlacklist();
+        ReflectionTestUtils.setField(blacklist, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(blacklist, "rebuildInterval", 3_600_000L);
+    }
+
+    @Test
+    void addDuringRebuildSurvivesSwap() {
+        // 重建读取 Redis 之后、替换过滤器之前，另一个请求加入黑名单
+        when(zSetOps.rangeByScore(eq(INDEX_KEY), anyDouble(), anyDouble())).thenAnswer(invocation -> {
+            blacklist.add("late", 60_000);
+            return new LinkedHashSet<>(Set.of("existing"));
+        });
+
+        blacklist.rebuild();
+
+        assertTrue(blacklist.contains("existing"));
+        assertTrue(blacklist.contains("late"));
+        assertFalse(blacklist.contains("unknown"));
+    }
+
+    @Test
+    void rebuildFailureKeepsCurrentFilter() {
+        blacklist.add("kept", 60_000);
+        when(zSetOps.rangeByScore(eq(INDEX_KEY), anyDouble(), anyDouble())).thenThrow(new RuntimeException("down"));
+
+        blacklist.rebuild();
+        blacklist.add("after", 60_000);
+
+        assertTrue(blacklist.contains("kept"));
+        assertTrue(blacklist.contains("after"));
+    }
+
+    @Test
+    void syncPicksUpAddsMissedByPubSub() {
+        when(zSetOps.rangeByScore(eq(ADDED_KEY), anyDouble(), anyDouble()))
+                .thenReturn(new LinkedHashSet<>(Set.of("remote")));
+        when(redisTemplate.hasKey("token_blacklist:remote")).thenReturn(true);
+
+        assertFalse(blacklist.contains("remote"));
+        blacklist.sync();
+
+        assertTrue(blacklist.contains("remote"));
+    }
+}
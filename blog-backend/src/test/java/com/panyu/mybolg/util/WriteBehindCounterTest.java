@@ -0,0 +1,241 @@
+package com.panyu.mybolg.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WriteBehindCounterTest {
+
+    private static final String INFLIGHT_INDEX = "counter:test:inflight";
+
+    private ValueOperations<String, String> valueOps;
+
+    private HashOperations<String, Object, Object> hashOps;
+
+    private ZSetOperations<String, String> zSetOps;
+
+    private ScriptRecordingRedisTemplate redisTemplate;
+
+    private WriteBehindCounter counter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        valueOps = mock(ValueOperations.class);
+        hashOps = mock(HashOperations.class);
+        zSetOps = mock(ZSetOperations.class);
+        when(zSetOps.range(INFLIGHT_INDEX, 0, -1)).thenReturn(new LinkedHashSet<>());
+        when(hashOps.multiGet(anyString(), anyCollection()))
+                .thenAnswer(invocation -> Arrays.asList(new Object[((Collection<?>) invocation.getArgument(1)).size()]));
+        redisTemplate = new ScriptRecordingRedisTemplate();
+        counter = new WriteBehindCounter(redisTemplate, "test");
+    }
+
+    @Test
+    void parseDeltasIgnoresInvalidAndNonPositiveValues() {
+        Map<Object, Object> entries = new HashMap<>();
+        entries.put("1", "3");
+        entries.put("2", "0");
+        entries.put("3", "-4");
+        entries.put("x", "5");
+        entries.put("4", "abc");
+
+        assertEquals(Map.of(1L, 3L), WriteBehindCounter.parseDeltas(entries));
+        assertTrue(WriteBehindCounter.parseDeltas(null).isEmpty());
+    }
+
+    @Test
+    void partitionSplitsByBatchSize() {
+        Map<Long, Long> deltas = new HashMap<>();
+        for (long id = 1; id <= 5; id++) {
+            deltas.put(id, id);
+        }
+
+        List<Map<Long, Long>> batches = WriteBehindCounter.partition(deltas, 2);
+
+        assertEquals(3, batches.size());
+        Map<Long, Long> merged = new HashMap<>();
+        batches.forEach(merged::putAll);
+        assertEquals(deltas, merged);
+    }
+
+    @Test
+    void syncToRedisSendsLocalDeltasOnce() {
+        counter.increment(1L);
+        counter.increment(1L);
+        counter.increment(2L);
+
+        counter.syncToRedis();
+
+        assertFalse(counter.hasLocalDeltas());
+        ScriptCall call = redisTemplate.single("HINCRBY");
+        assertEquals(List.of("counter:test:pending"), call.keys());
+        Map<String, String> applied = new HashMap<>();
+        for (int i = 0; i < call.args().length; i += 2) {
+            applied.put((String) call.args()[i], (String) call.args()[i + 1]);
+        }
+        assertEquals(Map.of("1", "2", "2", "1"), applied);
+    }
+
+    @Test
+    void syncToRedisKeepsLocalDeltasWhenRedisFails() {
+        redisTemplate.applyFailure = new IllegalStateException("redis down");
+        counter.increment(1L);
+        counter.increment(1L);
+
+        counter.syncToRedis();
+
+        assertTrue(counter.hasLocalDeltas());
+        assertEquals(2L, counter.getPending(1L));
+    }
+
+    @Test
+    void flushSkipsWhenLockIsHeldByAnotherNode() {
+        when(valueOps.setIfAbsent(eq("counter:test:flush_lock"), anyString(), any(Duration.class))).thenReturn(false);
+        List<String> flushed = new ArrayList<>();
+
+        counter.flush((flushId, deltas) -> flushed.add(flushId), Duration.ofMinutes(1));
+
+        assertTrue(flushed.isEmpty());
+        assertTrue(redisTemplate.calls.isEmpty());
+    }
+
+    @Test
+    void flushMovesPendingIntoSnapshotAndReleasesOwnLock() {
+        ArgumentCaptor<String> owner = ArgumentCaptor.forClass(String.class);
+        when(valueOps.setIfAbsent(eq("counter:test:flush_lock"), owner.capture(), any(Duration.class))).thenReturn(true);
+        when(hashOps.entries(startsWith("counter:test:inflight:"))).thenReturn(Map.of("7", "3"));
+        Map<String, Map<Long, Long>> flushed = new LinkedHashMap<>();
+
+        counter.flush(flushed::put, Duration.ofMinutes(1));
+
+        assertEquals(1, flushed.size());
+        String flushId = flushed.keySet().iterator().next();
+        assertTrue(flushId.startsWith("test:"));
+        assertEquals(Map.of(7L, 3L), flushed.get(flushId));
+
+        ScriptCall begin = redisTemplate.single("RENAME");
+        assertEquals(List.of("counter:test:pending", "counter:test:inflight:" + flushId, INFLIGHT_INDEX), begin.keys());
+        ScriptCall complete = redisTemplate.single("ZREM");
+        assertEquals(List.of("counter:test:inflight:" + flushId, INFLIGHT_INDEX), complete.keys());
+        ScriptCall release = redisTemplate.single("GET");
+        assertEquals(owner.getValue(), release.args()[0]);
+    }
+
+    @Test
+    void flushReplaysLeftoverSnapshotWithOriginalId() {
+        when(valueOps.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        when(zSetOps.range(INFLIGHT_INDEX, 0, -1)).thenReturn(new LinkedHashSet<>(List.of("test:old")));
+        when(hashOps.entries("counter:test:inflight:test:old")).thenReturn(Map.of("5", "2"));
+        redisTemplate.beginResult = 0L;
+        Map<String, Map<Long, Long>> flushed = new LinkedHashMap<>();
+
+        counter.flush(flushed::put, Duration.ofMinutes(1));
+
+        assertEquals(Map.of("test:old", Map.of(5L, 2L)), flushed);
+        assertEquals(List.of("counter:test:inflight:test:old", INFLIGHT_INDEX), redisTemplate.single("ZREM").keys());
+    }
+
+    @Test
+    void flushKeepsSnapshotWhenWriteFails() {
+        when(valueOps.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        when(hashOps.entries(startsWith("counter:test:inflight:"))).thenReturn(Map.of("7", "3"));
+
+        assertThrows(IllegalStateException.class, () -> counter.flush((flushId, deltas) -> {
+            throw new IllegalStateException("db down");
+        }, Duration.ofMinutes(1)));
+
+        assertTrue(redisTemplate.find("ZREM").isEmpty());
+        assertEquals(1, redisTemplate.find("GET").size());
+    }
+
+    @Test
+    void getPendingIncludesSnapshotsBeingFlushed() {
+        when(zSetOps.range(INFLIGHT_INDEX, 0, -1)).thenReturn(new LinkedHashSet<>(List.of("test:a")));
+        when(hashOps.multiGet(eq("counter:test:pending"), anyCollection())).thenReturn(Arrays.asList("2", null));
+        when(hashOps.multiGet(eq("counter:test:inflight:test:a"), anyCollection())).thenReturn(Arrays.asList("3", "4"));
+        counter.increment(1L);
+
+        Map<Long, Long> pending = counter.getPending(List.of(1L, 2L));
+
+        assertEquals(Map.of(1L, 6L, 2L, 4L), pending);
+    }
+
+    @Test
+    void getAllPendingMergesLocalRedisAndSnapshots() {
+        when(zSetOps.range(INFLIGHT_INDEX, 0, -1)).thenReturn(new LinkedHashSet<>(List.of("test:a")));
+        when(hashOps.entries("counter:test:pending")).thenReturn(Map.of("1", "2"));
+        when(hashOps.entries("counter:test:inflight:test:a")).thenReturn(Map.of("1", "3", "9", "5"));
+        counter.increment(2L);
+
+        assertEquals(Map.of(1L, 5L, 2L, 1L, 9L, 5L), counter.getAllPending());
+        assertEquals(11L, counter.getTotalPending());
+    }
+
+    private record ScriptCall(String script, List<String> keys, Object[] args) {
+    }
+
+    /**
+     * Lua 脚本调用不便用 Mockito 匹配，直接记录脚本和参数
+     */
+    private class ScriptRecordingRedisTemplate extends RedisTemplate<String, String> {
+
+        private final List<ScriptCall> calls = new ArrayList<>();
+
+        private Long beginResult = 1L;
+
+        private RuntimeException applyFailure;
+
+        @Override
+        public ValueOperations<String, String> opsForValue() {
+            return valueOps;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <HK, HV> HashOperations<String, HK, HV> opsForHash() {
+            return (HashOperations<String, HK, HV>) (HashOperations<String, ?, ?>) hashOps;
+        }
+
+        @Override
+        public ZSetOperations<String, String> opsForZSet() {
+            return zSetOps;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            String source = script.getScriptAsString();
+            calls.add(new ScriptCall(source, keys, args));
+            if (source.contains("HINCRBY") && applyFailure != null) {
+                throw applyFailure;
+            }
+            if (source.contains("RENAME")) {
+                return (T) beginResult;
+            }
+            return (T) Long.valueOf(1);
+        }
+
+        private List<ScriptCall> find(String marker) {
+            return calls.stream().filter(call -> call.script().contains(marker)).toList();
+        }
+
+        private ScriptCall single(String marker) {
+            List<ScriptCall> found = find(marker);
+            assertEquals(1, found.size(), marker);
+            return found.get(0);
+        }
+    }
+}
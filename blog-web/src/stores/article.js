@@ -6,6 +6,8 @@ export const useArticleStore = defineStore('article', () => {
   const articleList = ref([])
   const articleDetail = ref(null)
   const total = ref(0)
+  const nextCursor = ref('')
+  const hasMore = ref(true)
   const loading = ref(false)
   const categories = ref([])
   const tags = ref([])
@@ -15,7 +17,7 @@ export const useArticleStore = defineStore('article', () => {
     loading.value = true
     try {
       const res = await getArticleList(params)
-      if (append && params.pageNum > 1) {
+      if (append && (params.pageNum > 1 || params.cursor)) {
         // 追加模式：创建新数组但保持数据连续性
         const newList = res.data.list || []
         articleList.value = articleList.value.concat(newList)
@@ -23,7 +25,13 @@ export const useArticleStore = defineStore('article', () => {
         // 替换模式：清空后设置新数据
         articleList.value = res.data.list || []
       }
-      total.value = res.data.total
+      if (params.cursor !== undefined) {
+        // 游标分页：不返回总数，由 hasMore / nextCursor 判断是否还有下一页
+        nextCursor.value = res.data.nextCursor || ''
+        hasMore.value = !!res.data.hasMore
+      } else {
+        total.value = res.data.total
+      }
       return res
     } catch (error) {
       throw error
@@ -75,6 +83,8 @@ export const useArticleStore = defineStore('article', () => {
     articleList,
     articleDetail,
     total,
+    nextCursor,
+    hasMore,
     loading,
     categories,
     tags,